@@ -0,0 +1,79 @@
+package com.communityhub.config;
+
+import com.communityhub.dto.OutboundDeliveryStatsDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters for {@link SessionOrderedOutboundExecutor}: frames waiting, sessions
+ * with a backlog, frames delivered or rejected, and queue-to-completion latency.
+ */
+@Component
+public class OutboundDeliveryMetrics {
+    
+    private final int threads;
+    private final int sessionQueueCapacity;
+    private final AtomicLong queued = new AtomicLong();
+    private final AtomicInteger sessionsWithBacklog = new AtomicInteger();
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder totalLatencyNanos = new LongAdder();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+    
+    public OutboundDeliveryMetrics(@Value("${app.websocket.outbound-threads:0}") int configuredThreads,
+                                   @Value("${app.websocket.outbound-session-queue-capacity:1000}") int sessionQueueCapacity) {
+        this.threads = configuredThreads > 0
+                ? configuredThreads
+                : Runtime.getRuntime().availableProcessors() * 2;
+        this.sessionQueueCapacity = sessionQueueCapacity;
+    }
+    
+    public int getThreads() {
+        return threads;
+    }
+    
+    public int getSessionQueueCapacity() {
+        return sessionQueueCapacity;
+    }
+    
+    void recordQueued() {
+        queued.incrementAndGet();
+    }
+    
+    void recordRejected() {
+        rejected.increment();
+    }
+    
+    void recordDelivered(long latencyNanos) {
+        queued.decrementAndGet();
+        delivered.increment();
+        totalLatencyNanos.add(latencyNanos);
+        maxLatencyNanos.accumulateAndGet(latencyNanos, Math::max);
+    }
+    
+    void recordSessionQueueOpened() {
+        sessionsWithBacklog.incrementAndGet();
+    }
+    
+    void recordSessionQueueDrained() {
+        sessionsWithBacklog.decrementAndGet();
+    }
+    
+    public OutboundDeliveryStatsDTO snapshot() {
+        long count = delivered.sum();
+        return OutboundDeliveryStatsDTO.builder()
+                .threads(threads)
+                .sessionQueueCapacity(sessionQueueCapacity)
+                .queuedFrames(queued.get())
+                .sessionsWithBacklog(sessionsWithBacklog.get())
+                .delivered(count)
+                .rejected(rejected.sum())
+                .averageLatencyMicros(count > 0 ? totalLatencyNanos.sum() / count / 1000 : 0)
+                .maxLatencyMicros(maxLatencyNanos.get() / 1000)
+                .build();
+    }
+}
@@ -0,0 +1,94 @@
+package com.communityhub.config;
+
+import com.communityhub.security.UserPrincipal;
+import com.communityhub.service.ChatRoomDirectory;
+import com.communityhub.service.MembershipService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.lang.NonNull;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+import java.security.Principal;
+
+/**
+ * Only lets community members subscribe to /topic/channel.{id} and
+ * /topic/community.{id}.presence, and group members subscribe to
+ * /topic/group.{id}, since these are broadcast once per topic.
+ */
+@Component
+@RequiredArgsConstructor
+public class RoomSubscriptionInterceptor implements ChannelInterceptor {
+    
+    private static final String CHANNEL_TOPIC_PREFIX = "/topic/channel.";
+    private static final String GROUP_TOPIC_PREFIX = "/topic/group.";
+    private static final String COMMUNITY_TOPIC_PREFIX = "/topic/community.";
+    private static final String PRESENCE_TOPIC_SUFFIX = ".presence";
+    
+    private final ChatRoomDirectory chatRoomDirectory;
+    private final MembershipService membershipService;
+    
+    @Override
+    public Message<?> preSend(@NonNull Message<?> message, @NonNull MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || !StompCommand.SUBSCRIBE.equals(accessor.getCommand())) {
+            return message;
+        }
+        
+        String destination = accessor.getDestination();
+        if (destination == null) {
+            return message;
+        }
+        
+        if (destination.startsWith(CHANNEL_TOPIC_PREFIX)) {
+            Long channelId = parseRoomId(destination, CHANNEL_TOPIC_PREFIX);
+            Long communityId = chatRoomDirectory.getChannelCommunityId(channelId)
+                    .orElseThrow(() -> new MessagingException("Channel not found"));
+            if (!membershipService.isMember(resolveUserId(accessor.getUser()), communityId)) {
+                throw new MessagingException("Not a member of this community");
+            }
+        } else if (destination.startsWith(GROUP_TOPIC_PREFIX)) {
+            Long groupChatId = parseRoomId(destination, GROUP_TOPIC_PREFIX);
+            ChatRoomDirectory.GroupRoom room = chatRoomDirectory.getGroupRoom(groupChatId)
+                    .orElseThrow(() -> new MessagingException("Group chat not found"));
+            Long userId = resolveUserId(accessor.getUser());
+            if (!membershipService.isMember(userId, room.communityId())) {
+                throw new MessagingException("Not a member of this community");
+            }
+            if (!room.memberIds().contains(userId)) {
+                throw new MessagingException("Not a member of this group chat");
+            }
+        } else if (destination.startsWith(COMMUNITY_TOPIC_PREFIX) && destination.endsWith(PRESENCE_TOPIC_SUFFIX)) {
+            Long communityId = parseRoomId(
+                    destination.substring(0, destination.length() - PRESENCE_TOPIC_SUFFIX.length()),
+                    COMMUNITY_TOPIC_PREFIX);
+            if (!membershipService.isMember(resolveUserId(accessor.getUser()), communityId)) {
+                throw new MessagingException("Not a member of this community");
+            }
+        }
+        
+        return message;
+    }
+    
+    private Long parseRoomId(String destination, String prefix) {
+        try {
+            return Long.parseLong(destination.substring(prefix.length()));
+        } catch (NumberFormatException e) {
+            throw new MessagingException("Invalid destination: " + destination);
+        }
+    }
+    
+    private Long resolveUserId(Principal principal) {
+        if (!(principal instanceof Authentication authentication)
+                || !(authentication.getPrincipal() instanceof UserPrincipal user)) {
+            throw new MessagingException("User not authenticated");
+        }
+        return user.getId();
+    }
+}
@@ -0,0 +1,124 @@
+package com.communityhub.config;
+
+import org.springframework.lang.NonNull;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.support.MessageHandlingRunnable;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Executor for {@code clientOutboundChannel} that keeps each session's frames in
+ * order while running all sessions on one shared pool.
+ *
+ * <p>Each session with frames waiting has its own bounded queue. At most one
+ * pool thread drains a given queue at a time, and it hands the thread back
+ * after a few frames so a busy session cannot starve the others. A session
+ * stalled on a socket write ties up only the thread draining it; the rest of
+ * the pool keeps serving other sessions, and {@link SlowConsumerGuard} closes
+ * the stalled one. Frames beyond a session's queue capacity are rejected.
+ * Frames without a session id go straight to the pool.
+ */
+public class SessionOrderedOutboundExecutor extends ThreadPoolTaskExecutor {
+    
+    private static final int MAX_FRAMES_PER_TURN = 16;
+    
+    private final OutboundDeliveryMetrics metrics;
+    private final ConcurrentHashMap<String, SessionQueue> queues = new ConcurrentHashMap<>();
+    
+    public SessionOrderedOutboundExecutor(OutboundDeliveryMetrics metrics) {
+        this.metrics = metrics;
+        setCorePoolSize(metrics.getThreads());
+        setMaxPoolSize(metrics.getThreads());
+        setThreadNamePrefix("ws-outbound-");
+    }
+    
+    private final class SessionQueue implements Runnable {
+        private final String sessionId;
+        private final ArrayDeque<Runnable> frames = new ArrayDeque<>();
+        private boolean scheduled;
+        private boolean retired;
+        
+        private SessionQueue(String sessionId) {
+            this.sessionId = sessionId;
+        }
+        
+        // False if the queue was retired and the caller must look up a fresh one
+        private boolean offer(Runnable frame) {
+            boolean schedule;
+            synchronized (this) {
+                if (retired) {
+                    return false;
+                }
+                if (frames.size() >= metrics.getSessionQueueCapacity()) {
+                    // The frame stays counted as pending by SlowConsumerGuard, which then disconnects the session
+                    metrics.recordRejected();
+                    return true;
+                }
+                frames.add(frame);
+                metrics.recordQueued();
+                schedule = !scheduled;
+                scheduled = true;
+            }
+            if (schedule) {
+                SessionOrderedOutboundExecutor.super.execute(this);
+            }
+            return true;
+        }
+        
+        @Override
+        public void run() {
+            for (int i = 0; i < MAX_FRAMES_PER_TURN; i++) {
+                Runnable frame;
+                synchronized (this) {
+                    frame = frames.poll();
+                    if (frame == null) {
+                        // Retire under the lock so no frame can be added to a queue nobody drains
+                        scheduled = false;
+                        retired = true;
+                        queues.remove(sessionId, this);
+                        metrics.recordSessionQueueDrained();
+                        return;
+                    }
+                }
+                try {
+                    frame.run();
+                } catch (RuntimeException e) {
+                    // Keep draining; an escaped exception would leave the queue scheduled forever
+                    System.err.println("Failed to deliver frame to session " + sessionId + ": " + e.getMessage());
+                }
+            }
+            // Turn used up: go to the back of the pool queue so other sessions get a turn
+            SessionOrderedOutboundExecutor.super.execute(this);
+        }
+    }
+    
+    @Override
+    public void execute(@NonNull Runnable task) {
+        String sessionId = task instanceof MessageHandlingRunnable handling
+                ? SimpMessageHeaderAccessor.getSessionId(handling.getMessage().getHeaders())
+                : null;
+        if (sessionId == null) {
+            super.execute(task);
+            return;
+        }
+        
+        long queuedAt = System.nanoTime();
+        Runnable frame = () -> {
+            try {
+                task.run();
+            } finally {
+                metrics.recordDelivered(System.nanoTime() - queuedAt);
+            }
+        };
+        while (!queues.computeIfAbsent(sessionId, this::openQueue).offer(frame)) {
+            // Lost a race with the queue retiring; the next lookup creates a new one
+        }
+    }
+    
+    private SessionQueue openQueue(String sessionId) {
+        metrics.recordSessionQueueOpened();
+        return new SessionQueue(sessionId);
+    }
+}
@@ -0,0 +1,166 @@
+package com.communityhub.config;
+
+import org.springframework.lang.NonNull;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.broker.SubscriptionRegistry;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.CollectionUtils;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.util.PathMatcher;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Subscription registry for the simple broker, indexed by exact destination.
+ *
+ * <p>Destinations are spread over independent shards by hash. Each destination
+ * maps to a concurrent map of session id to that session's subscription ids.
+ * Subscribe and unsubscribe change a single session's entry under the
+ * destination's bin lock, so their cost does not grow with the number of
+ * subscribers. Publishing reads the live map through a read-only view, with no
+ * locking and no pattern matching. The rare pattern subscription (containing
+ * '*', '?' or '{') is kept in a separate list and matched only when one exists.
+ */
+public class ShardedSubscriptionRegistry implements SubscriptionRegistry {
+    
+    private static final MultiValueMap<String, String> NO_SUBSCRIPTIONS =
+            CollectionUtils.unmodifiableMultiValueMap(new LinkedMultiValueMap<>());
+    
+    // destination -> (sessionId -> subscriptionIds); sessions rarely hold more than one id per destination
+    private final ConcurrentHashMap<String, ConcurrentHashMap<String, List<String>>>[] shards;
+    private final int shardMask;
+    
+    // sessionId -> (subscriptionId -> destination), used to unregister
+    private final ConcurrentHashMap<String, ConcurrentHashMap<String, String>> sessions = new ConcurrentHashMap<>();
+    
+    private final CopyOnWriteArrayList<PatternSubscription> patternSubscriptions = new CopyOnWriteArrayList<>();
+    private final PathMatcher pathMatcher = new AntPathMatcher();
+    
+    private record PatternSubscription(String pattern, String sessionId, String subscriptionId) {
+    }
+    
+    @SuppressWarnings("unchecked")
+    public ShardedSubscriptionRegistry(int shardCount) {
+        int size = 1;
+        while (size < shardCount) {
+            size <<= 1;
+        }
+        this.shards = new ConcurrentHashMap[size];
+        for (int i = 0; i < size; i++) {
+            shards[i] = new ConcurrentHashMap<>();
+        }
+        this.shardMask = size - 1;
+    }
+    
+    @Override
+    public void registerSubscription(@NonNull Message<?> message) {
+        MessageHeaders headers = message.getHeaders();
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(headers);
+        String subscriptionId = SimpMessageHeaderAccessor.getSubscriptionId(headers);
+        String destination = SimpMessageHeaderAccessor.getDestination(headers);
+        if (sessionId == null || subscriptionId == null || destination == null) {
+            return;
+        }
+        
+        sessions.computeIfAbsent(sessionId, id -> new ConcurrentHashMap<>()).put(subscriptionId, destination);
+        
+        if (pathMatcher.isPattern(destination)) {
+            patternSubscriptions.add(new PatternSubscription(destination, sessionId, subscriptionId));
+            return;
+        }
+        
+        shardFor(destination).compute(destination, (key, subscribers) -> {
+            ConcurrentHashMap<String, List<String>> updated = subscribers != null ? subscribers : new ConcurrentHashMap<>();
+            updated.computeIfAbsent(sessionId, id -> new CopyOnWriteArrayList<>()).add(subscriptionId);
+            return updated;
+        });
+    }
+    
+    @Override
+    public void unregisterSubscription(@NonNull Message<?> message) {
+        MessageHeaders headers = message.getHeaders();
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(headers);
+        String subscriptionId = SimpMessageHeaderAccessor.getSubscriptionId(headers);
+        if (sessionId == null || subscriptionId == null) {
+            return;
+        }
+        
+        Map<String, String> sessionSubscriptions = sessions.get(sessionId);
+        if (sessionSubscriptions == null) {
+            return;
+        }
+        String destination = sessionSubscriptions.remove(subscriptionId);
+        if (destination != null) {
+            removeSubscription(destination, sessionId, subscriptionId);
+        }
+    }
+    
+    @Override
+    public void unregisterAllSubscriptions(@NonNull String sessionId) {
+        Map<String, String> sessionSubscriptions = sessions.remove(sessionId);
+        if (sessionSubscriptions != null) {
+            sessionSubscriptions.forEach((subscriptionId, destination) ->
+                    removeSubscription(destination, sessionId, subscriptionId));
+        }
+    }
+    
+    @Override
+    @NonNull
+    public MultiValueMap<String, String> findSubscriptions(@NonNull Message<?> message) {
+        String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+        if (destination == null) {
+            return NO_SUBSCRIPTIONS;
+        }
+        
+        Map<String, List<String>> subscribers = shardFor(destination).get(destination);
+        MultiValueMap<String, String> exact = subscribers == null ? NO_SUBSCRIPTIONS
+                : CollectionUtils.unmodifiableMultiValueMap(CollectionUtils.toMultiValueMap(subscribers));
+        if (patternSubscriptions.isEmpty()) {
+            return exact;
+        }
+        
+        LinkedMultiValueMap<String, String> result = copyOf(exact);
+        for (PatternSubscription subscription : patternSubscriptions) {
+            if (pathMatcher.match(subscription.pattern(), destination)) {
+                result.add(subscription.sessionId(), subscription.subscriptionId());
+            }
+        }
+        return result;
+    }
+    
+    private void removeSubscription(String destination, String sessionId, String subscriptionId) {
+        if (pathMatcher.isPattern(destination)) {
+            patternSubscriptions.remove(new PatternSubscription(destination, sessionId, subscriptionId));
+            return;
+        }
+        
+        shardFor(destination).computeIfPresent(destination, (key, subscribers) -> {
+            subscribers.computeIfPresent(sessionId, (id, subscriptionIds) -> {
+                subscriptionIds.remove(subscriptionId);
+                return subscriptionIds.isEmpty() ? null : subscriptionIds;
+            });
+            // Returning null drops the destination entirely once nobody listens
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+    }
+    
+    // The exact-match view is live, so pattern matches are added to a copy
+    private static LinkedMultiValueMap<String, String> copyOf(MultiValueMap<String, String> source) {
+        LinkedMultiValueMap<String, String> copy = new LinkedMultiValueMap<>();
+        if (source != null) {
+            source.forEach(copy::addAll);
+        }
+        return copy;
+    }
+    
+    private ConcurrentHashMap<String, ConcurrentHashMap<String, List<String>>> shardFor(String destination) {
+        int hash = destination.hashCode();
+        return shards[(hash ^ (hash >>> 16)) & shardMask];
+    }
+}
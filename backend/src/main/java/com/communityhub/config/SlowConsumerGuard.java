@@ -0,0 +1,234 @@
+package com.communityhub.config;
+
+import com.communityhub.dto.SlowConsumerStatsDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketHandlerDecoratorFactory;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounds how far a WebSocket session may fall behind on outbound frames.
+ *
+ * <p>Frames are counted when they enter {@code clientOutboundChannel} and
+ * released once written. When a session's backlog passes half of the send
+ * buffer or time limit, ephemeral frames (destinations ending in one of the
+ * droppable suffixes, e.g. typing or presence) are discarded. Once a limit is
+ * exceeded the session is closed with {@link CloseStatus#SESSION_NOT_RELIABLE}
+ * and a {@code retry-after} hint, and the client reconnects and catches up
+ * through the REST history endpoints.
+ *
+ * <p>Each session has a single writer, so Spring's own send time limit never
+ * fires for a write that blocks. A periodic sweep closes sessions stalled past
+ * the time limit even when no further frames arrive for them.
+ */
+@Component
+public class SlowConsumerGuard implements ExecutorChannelInterceptor, WebSocketHandlerDecoratorFactory {
+    
+    private final int sendBufferSizeLimit;
+    private final int sendTimeLimitMs;
+    private final long sendTimeLimitNanos;
+    private final List<String> droppableSuffixes;
+    private final CloseStatus slowConsumerStatus;
+    
+    private final ConcurrentHashMap<String, SessionBacklog> sessions = new ConcurrentHashMap<>();
+    private final LongAdder droppedFrames = new LongAdder();
+    private final LongAdder forcedDisconnects = new LongAdder();
+    
+    private static final class SessionBacklog {
+        private final WebSocketSession session;
+        private final AtomicLong pendingBytes = new AtomicLong();
+        private final AtomicInteger pendingFrames = new AtomicInteger();
+        private final AtomicBoolean closing = new AtomicBoolean();
+        private volatile long lastProgressNanos = System.nanoTime();
+        
+        private SessionBacklog(WebSocketSession session) {
+            this.session = session;
+        }
+        
+        private void queued(int size) {
+            if (pendingFrames.getAndIncrement() == 0) {
+                lastProgressNanos = System.nanoTime();
+            }
+            pendingBytes.addAndGet(size);
+        }
+        
+        private void written(int size) {
+            pendingBytes.addAndGet(-size);
+            pendingFrames.decrementAndGet();
+            lastProgressNanos = System.nanoTime();
+        }
+        
+        // How long the oldest pending frame has been waiting without the session making progress
+        private long stalledNanos() {
+            return pendingFrames.get() > 0 ? System.nanoTime() - lastProgressNanos : 0;
+        }
+    }
+    
+    public SlowConsumerGuard(@Value("${app.websocket.send-buffer-size-limit:524288}") int sendBufferSizeLimit,
+                             @Value("${app.websocket.send-time-limit-ms:10000}") int sendTimeLimitMs,
+                             @Value("${app.websocket.slow-consumer.droppable-suffixes:.typing,.presence}") List<String> droppableSuffixes,
+                             @Value("${app.websocket.slow-consumer.retry-after-ms:5000}") int retryAfterMs) {
+        this.sendBufferSizeLimit = sendBufferSizeLimit;
+        this.sendTimeLimitMs = sendTimeLimitMs;
+        this.sendTimeLimitNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeLimitMs);
+        this.droppableSuffixes = droppableSuffixes;
+        this.slowConsumerStatus = CloseStatus.SESSION_NOT_RELIABLE
+                .withReason("slow-consumer;retry-after=" + retryAfterMs);
+    }
+    
+    public int getSendBufferSizeLimit() {
+        return sendBufferSizeLimit;
+    }
+    
+    public int getSendTimeLimitMs() {
+        return sendTimeLimitMs;
+    }
+    
+    public SlowConsumerStatsDTO snapshot() {
+        int behind = 0;
+        for (SessionBacklog backlog : sessions.values()) {
+            if (backlog.pendingBytes.get() > sendBufferSizeLimit / 2
+                    || backlog.stalledNanos() > sendTimeLimitNanos / 2) {
+                behind++;
+            }
+        }
+        return SlowConsumerStatsDTO.builder()
+                .droppedFrames(droppedFrames.sum())
+                .forcedDisconnects(forcedDisconnects.sum())
+                .sessionsBehind(behind)
+                .sendBufferSizeLimit(sendBufferSizeLimit)
+                .sendTimeLimitMs(sendTimeLimitMs)
+                .build();
+    }
+    
+    @Scheduled(fixedDelayString = "${app.websocket.slow-consumer.sweep-interval-ms:1000}")
+    public void closeStalledSessions() {
+        for (SessionBacklog backlog : sessions.values()) {
+            if (backlog.stalledNanos() > sendTimeLimitNanos) {
+                forceDisconnect(backlog);
+            }
+        }
+    }
+    
+    @Override
+    public Message<?> preSend(@NonNull Message<?> message, @NonNull MessageChannel channel) {
+        SessionBacklog backlog = backlogFor(message);
+        if (backlog == null) {
+            return message;
+        }
+        if (backlog.closing.get()) {
+            droppedFrames.increment();
+            return null;
+        }
+        
+        int size = sizeOf(message);
+        long pendingBytes = backlog.pendingBytes.get() + size;
+        long stalledNanos = backlog.stalledNanos();
+        boolean droppable = isDroppable(message);
+        
+        if (pendingBytes > sendBufferSizeLimit || stalledNanos > sendTimeLimitNanos) {
+            if (!droppable) {
+                forceDisconnect(backlog);
+            }
+            droppedFrames.increment();
+            return null;
+        }
+        if (droppable && (pendingBytes > sendBufferSizeLimit / 2 || stalledNanos > sendTimeLimitNanos / 2)) {
+            droppedFrames.increment();
+            return null;
+        }
+        
+        backlog.queued(size);
+        return message;
+    }
+    
+    @Override
+    public void afterMessageHandled(@NonNull Message<?> message, @NonNull MessageChannel channel,
+                                    @NonNull MessageHandler handler, Exception ex) {
+        SessionBacklog backlog = backlogFor(message);
+        if (backlog != null) {
+            backlog.written(sizeOf(message));
+        }
+    }
+    
+    @Override
+    @NonNull
+    public WebSocketHandler decorate(@NonNull WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(@NonNull WebSocketSession session) throws Exception {
+                sessions.put(session.getId(), new SessionBacklog(session));
+                super.afterConnectionEstablished(session);
+            }
+            
+            @Override
+            public void afterConnectionClosed(@NonNull WebSocketSession session, @NonNull CloseStatus closeStatus)
+                    throws Exception {
+                SessionBacklog backlog = sessions.remove(session.getId());
+                // Also count closes made by Spring's own send buffer/time limit backstop
+                if (backlog != null && !backlog.closing.get()
+                        && closeStatus.equalsCode(CloseStatus.SESSION_NOT_RELIABLE)) {
+                    forcedDisconnects.increment();
+                }
+                super.afterConnectionClosed(session, closeStatus);
+            }
+        };
+    }
+    
+    private void forceDisconnect(SessionBacklog backlog) {
+        if (!backlog.closing.compareAndSet(false, true)) {
+            return;
+        }
+        forcedDisconnects.increment();
+        // Closing may block on the stalled socket, so keep it off the broker thread
+        CompletableFuture.runAsync(() -> {
+            try {
+                backlog.session.close(slowConsumerStatus);
+            } catch (IOException e) {
+                System.err.println("Failed to close slow WebSocket session " + backlog.session.getId() + ": " + e.getMessage());
+            }
+        });
+    }
+    
+    private SessionBacklog backlogFor(Message<?> message) {
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+        return sessionId != null ? sessions.get(sessionId) : null;
+    }
+    
+    private boolean isDroppable(Message<?> message) {
+        String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+        if (destination == null) {
+            return false;
+        }
+        for (String suffix : droppableSuffixes) {
+            if (destination.endsWith(suffix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static int sizeOf(Message<?> message) {
+        return message.getPayload() instanceof byte[] payload ? payload.length : 0;
+    }
+}
@@ -1,35 +1,74 @@
 package com.communityhub.config;
 
-import com.communityhub.security.JwtTokenProvider;
+import com.communityhub.security.TokenAuthenticationService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.lang.NonNull;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
 import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.messaging.simp.stomp.StompCommand;
 import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
 import org.springframework.messaging.support.ChannelInterceptor;
 import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 
 @Configuration
 @EnableWebSocketMessageBroker
 @RequiredArgsConstructor
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
     
-    private final JwtTokenProvider jwtTokenProvider;
-    private final UserDetailsService userDetailsService;
+    private final TokenAuthenticationService tokenAuthenticationService;
+    private final RoomSubscriptionInterceptor roomSubscriptionInterceptor;
+    private final OutboundDeliveryMetrics outboundDeliveryMetrics;
+    private final SlowConsumerGuard slowConsumerGuard;
     
+    @Value("${app.websocket.heartbeat-ms:10000}")
+    private long heartbeatMs;
+    
+    /**
+     * Swaps the simple broker's default pattern-matching registry for the
+     * exact-destination {@link ShardedSubscriptionRegistry}.
+     */
+    @Bean
+    public static BeanPostProcessor subscriptionRegistryInstaller(
+            @Value("${app.websocket.subscription-shards:64}") int shardCount) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(@NonNull Object bean, @NonNull String beanName) {
+                if (bean instanceof SimpleBrokerMessageHandler brokerHandler) {
+                    brokerHandler.setSubscriptionRegistry(new ShardedSubscriptionRegistry(shardCount));
+                }
+                return bean;
+            }
+        };
+    }
+    
+    /**
+     * Broker heartbeats let dead connections be detected and closed, which in
+     * turn drives offline transitions in the presence service.
+     */
     @Override
     public void configureMessageBroker(@NonNull MessageBrokerRegistry config) {
-        config.enableSimpleBroker("/topic", "/queue");
+        ThreadPoolTaskScheduler heartbeatScheduler = new ThreadPoolTaskScheduler();
+        heartbeatScheduler.setPoolSize(1);
+        heartbeatScheduler.setThreadNamePrefix("ws-heartbeat-");
+        heartbeatScheduler.setDaemon(true);
+        heartbeatScheduler.initialize();
+        
+        config.enableSimpleBroker("/topic", "/queue")
+                .setHeartbeatValue(new long[]{heartbeatMs, heartbeatMs})
+                .setTaskScheduler(heartbeatScheduler);
         config.setApplicationDestinationPrefixes("/app");
         config.setUserDestinationPrefix("/user");
     }
@@ -53,26 +92,36 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
                     
                     if (authToken != null && authToken.startsWith("Bearer ")) {
                         String token = authToken.substring(7);
-                        String username = jwtTokenProvider.extractUsername(token);
+                        UsernamePasswordAuthenticationToken authentication =
+                                tokenAuthenticationService.authenticate(token);
                         
-                        if (username != null) {
-                            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                            
-                            if (jwtTokenProvider.isTokenValid(token, userDetails)) {
-                                UsernamePasswordAuthenticationToken authentication = 
-                                    new UsernamePasswordAuthenticationToken(
-                                        userDetails, 
-                                        null, 
-                                        userDetails.getAuthorities()
-                                    );
-                                accessor.setUser(authentication);
-                            }
+                        if (authentication != null) {
+                            accessor.setUser(authentication);
                         }
                     }
                 }
                 
                 return message;
             }
-        });
+        }, roomSubscriptionInterceptor);
+    }
+    
+    /**
+     * Delivers outbound frames through per-session queues on a shared pool so
+     * each client receives its messages in order without serialising unrelated
+     * sessions.
+     * {@link SlowConsumerGuard} sheds or disconnects sessions that fall behind.
+     */
+    @Override
+    public void configureClientOutboundChannel(@NonNull ChannelRegistration registration) {
+        registration.taskExecutor(new SessionOrderedOutboundExecutor(outboundDeliveryMetrics));
+        registration.interceptors(slowConsumerGuard);
+    }
+    
+    @Override
+    public void configureWebSocketTransport(@NonNull WebSocketTransportRegistration registration) {
+        registration.setSendBufferSizeLimit(slowConsumerGuard.getSendBufferSizeLimit())
+                .setSendTimeLimit(slowConsumerGuard.getSendTimeLimitMs())
+                .addDecoratorFactory(slowConsumerGuard);
     }
 }
@@ -3,6 +3,7 @@ package com.communityhub.controller;
 import com.communityhub.dto.AuthResponse;
 import com.communityhub.dto.LoginRequest;
 import com.communityhub.dto.RegisterRequest;
+import com.communityhub.exception.PasswordHashingBusyException;
 import com.communityhub.service.AuthService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -23,6 +24,9 @@ public class AuthController {
         try {
             AuthResponse response = authService.register(request);
             return ResponseEntity.ok(response);
+        } catch (PasswordHashingBusyException e) {
+            // Mapped to 503 with Retry-After by GlobalExceptionHandler
+            throw e;
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(
                 AuthResponse.builder()
@@ -37,6 +41,8 @@ public class AuthController {
         try {
             AuthResponse response = authService.login(request);
             return ResponseEntity.ok(response);
+        } catch (PasswordHashingBusyException e) {
+            throw e;
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(
                 AuthResponse.builder()
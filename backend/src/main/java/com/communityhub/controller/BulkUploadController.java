@@ -4,6 +4,7 @@ import com.communityhub.model.Community;
 import com.communityhub.model.User;
 import com.communityhub.repository.CommunityRepository;
 import com.communityhub.repository.UserRepository;
+import com.communityhub.security.CurrentUser;
 import com.communityhub.service.BulkImportService;
 import com.communityhub.service.MembershipService;
 import lombok.RequiredArgsConstructor;
@@ -12,7 +13,6 @@ import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -35,12 +35,12 @@ public class BulkUploadController {
     public ResponseEntity<Map<String, Object>> uploadBulkFile(
             @PathVariable Long communityId,
             @RequestParam("file") MultipartFile file,
-            Authentication authentication) {
+            @CurrentUser Long userId) {
         
-        User user = getUserFromAuthentication(authentication);
+        User user = userRepository.getReferenceById(userId);
         
         // Check if user is administrator or moderator
-        if (!membershipService.isAdminOrModerator(user.getId(), communityId)) {
+        if (!membershipService.isAdminOrModerator(userId, communityId)) {
             return ResponseEntity.status(403).body(
                 Map.of("message", "Only administrators and moderators can perform bulk uploads")
             );
@@ -98,12 +98,10 @@ public class BulkUploadController {
     @GetMapping("/history")
     public ResponseEntity<Map<String, Object>> getUploadHistory(
             @PathVariable Long communityId,
-            Authentication authentication) {
-        
-        User user = getUserFromAuthentication(authentication);
+            @CurrentUser Long userId) {
         
         // Check if user is member of the community
-        if (!membershipService.isMember(user.getId(), communityId)) {
+        if (!membershipService.isMember(userId, communityId)) {
             return ResponseEntity.status(403).build();
         }
         
@@ -115,10 +113,4 @@ public class BulkUploadController {
         
         return ResponseEntity.ok(response);
     }
-    
-    private User getUserFromAuthentication(Authentication authentication) {
-        String email = authentication.getName();
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-    }
 }
@@ -1,17 +1,20 @@
 package com.communityhub.controller;
 
 import com.communityhub.dto.CommunityDTO;
+import com.communityhub.dto.CommunitySearchResultDTO;
 import com.communityhub.model.Community;
 import com.communityhub.model.JoinRequest;
 import com.communityhub.model.Membership;
 import com.communityhub.model.User;
-import com.communityhub.repository.JoinRequestRepository;
 import com.communityhub.repository.UserRepository;
+import com.communityhub.security.CurrentUser;
+import com.communityhub.service.CommunitySearchIndex;
 import com.communityhub.service.CommunityService;
+import com.communityhub.service.JoinRequestService;
 import com.communityhub.service.MembershipService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
@@ -28,7 +31,10 @@ public class CommunityController {
     private final CommunityService communityService;
     private final MembershipService membershipService;
     private final UserRepository userRepository;
-    private final JoinRequestRepository joinRequestRepository;
+    private final JoinRequestService joinRequestService;
+    private final CommunitySearchIndex communitySearchIndex;
+    
+    private static final int MAX_DIRECTORY_PAGE_SIZE = 100;
     
     @lombok.Data
     @lombok.NoArgsConstructor
@@ -63,38 +69,53 @@ public class CommunityController {
     }
     
     @GetMapping("/public")
-    public ResponseEntity<List<Map<String, Object>>> getPublicCommunities() {
-        List<Community> publicCommunities = communityService.getAllCommunities().stream()
-                .filter(c -> !c.getIsPrivate() && c.getIsActive())
-                .collect(Collectors.toList());
+    public ResponseEntity<Map<String, Object>> getPublicCommunities(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "NAME") CommunityService.DirectorySort sort) {
+        
+        Slice<Community> directory = communityService.getPublicDirectory(
+                sort, Math.max(page, 0), Math.max(1, Math.min(size, MAX_DIRECTORY_PAGE_SIZE)));
         
-        List<Map<String, Object>> result = publicCommunities.stream()
+        List<Map<String, Object>> communities = directory.stream()
                 .map(community -> {
                     Map<String, Object> data = new HashMap<>();
                     data.put("id", community.getId());
                     data.put("name", community.getName());
                     data.put("description", community.getDescription());
-                    data.put("memberCount", membershipService.getCommunityMemberCount(community.getId()));
+                    data.put("logoUrl", community.getLogoUrl());
+                    data.put("memberCount", community.getMemberCount());
+                    data.put("createdAt", community.getCreatedAt().toString());
                     return data;
                 })
                 .collect(Collectors.toList());
         
-        return ResponseEntity.ok(result);
+        Map<String, Object> response = new HashMap<>();
+        response.put("communities", communities);
+        response.put("page", directory.getNumber());
+        response.put("size", directory.getSize());
+        response.put("hasMore", directory.hasNext());
+        return ResponseEntity.ok(response);
+    }
+    
+    @GetMapping("/search")
+    public ResponseEntity<List<CommunitySearchResultDTO>> searchCommunities(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(communitySearchIndex.search(q, Math.max(1, Math.min(limit, MAX_DIRECTORY_PAGE_SIZE))));
     }
     
     @GetMapping("/{id}")
     public ResponseEntity<CommunityDTO> getCommunityById(
             @PathVariable Long id,
-            Authentication authentication) {
-        
-        User user = getUserFromAuthentication(authentication);
+            @CurrentUser Long userId) {
         
         return communityService.getCommunityById(id)
                 .map(community -> {
                     CommunityDTO dto = convertToDTO(community);
                     
                     // Include user's role in this community
-                    membershipService.getMembership(user.getId(), id)
+                    membershipService.getMembership(userId, id)
                             .ifPresent(membership -> dto.setRole(membership.getRole().name()));
                     
                     return ResponseEntity.ok(dto);
@@ -103,27 +124,16 @@ public class CommunityController {
     }
     
     @GetMapping("/my-communities")
-    public ResponseEntity<List<CommunityDTO>> getMyCommunities(Authentication authentication) {
-        User user = getUserFromAuthentication(authentication);
-        
-        List<CommunityDTO> communities = membershipService.getUserMemberships(user.getId()).stream()
-                .map(membership -> {
-                    CommunityDTO dto = convertToDTO(membership.getCommunity());
-                    dto.setRole(membership.getRole().name());
-                    dto.setMemberCount(membershipService.getCommunityMemberCount(membership.getCommunity().getId()));
-                    return dto;
-                })
-                .collect(Collectors.toList());
-        
-        return ResponseEntity.ok(communities);
+    public ResponseEntity<List<CommunityDTO>> getMyCommunities(@CurrentUser Long userId) {
+        return ResponseEntity.ok(membershipService.getUserCommunities(userId));
     }
     
     @PostMapping
     public ResponseEntity<Map<String, Object>> createCommunity(
             @jakarta.validation.Valid @RequestBody CreateCommunityRequest request,
-            Authentication authentication) {
+            @CurrentUser Long userId) {
         
-        User user = getUserFromAuthentication(authentication);
+        User user = userRepository.getReferenceById(userId);
         
         Community community = new Community();
         community.setName(request.getName());
@@ -155,15 +165,15 @@ public class CommunityController {
     public ResponseEntity<Map<String, String>> joinCommunity(
             @PathVariable String joinCode,
             @RequestBody(required = false) JoinCommunityRequest request,
-            Authentication authentication) {
+            @CurrentUser Long userId) {
         
-        User user = getUserFromAuthentication(authentication);
+        User user = userRepository.getReferenceById(userId);
         
         Community community = communityService.getCommunityByJoinCode(joinCode)
                 .orElseThrow(() -> new RuntimeException("Invalid join code"));
         
         // Check if already a member
-        if (membershipService.isMember(user.getId(), community.getId())) {
+        if (membershipService.isMember(userId, community.getId())) {
             Map<String, String> response = new HashMap<>();
             response.put("message", "You are already a member of this community");
             return ResponseEntity.ok(response);
@@ -188,7 +198,7 @@ public class CommunityController {
             joinRequest.setCommunity(community);
             joinRequest.setMessage(request != null ? request.getMessage() : null);
             joinRequest.setStatus(JoinRequest.RequestStatus.PENDING);
-            joinRequestRepository.save(joinRequest);
+            joinRequestService.submitRequest(joinRequest);
             
             Map<String, String> response = new HashMap<>();
             response.put("message", "Join request submitted for approval");
@@ -200,11 +210,9 @@ public class CommunityController {
     public ResponseEntity<CommunityDTO> updateCommunity(
             @PathVariable Long id,
             @jakarta.validation.Valid @RequestBody CreateCommunityRequest request,
-            Authentication authentication) {
+            @CurrentUser Long userId) {
         
-        User user = getUserFromAuthentication(authentication);
-        
-        if (!membershipService.isAdministrator(user.getId(), id)) {
+        if (!membershipService.isAdministrator(userId, id)) {
             return ResponseEntity.status(403).build();
         }
         
@@ -222,12 +230,10 @@ public class CommunityController {
     @DeleteMapping("/{id}")
     public ResponseEntity<Map<String, String>> deleteCommunity(
             @PathVariable Long id,
-            Authentication authentication) {
-        
-        User user = getUserFromAuthentication(authentication);
+            @CurrentUser Long userId) {
         
         // Only administrators can delete communities
-        if (!membershipService.isAdministrator(user.getId(), id)) {
+        if (!membershipService.isAdministrator(userId, id)) {
             Map<String, String> error = new HashMap<>();
             error.put("error", "Only administrators can delete communities");
             return ResponseEntity.status(403).body(error);
@@ -264,10 +270,4 @@ public class CommunityController {
                 .createdAt(community.getCreatedAt().toString())
                 .build();
     }
-    
-    private User getUserFromAuthentication(Authentication authentication) {
-        String email = authentication.getName();
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-    }
 }
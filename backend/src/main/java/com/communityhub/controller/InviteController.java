@@ -7,11 +7,12 @@ import com.communityhub.model.User;
 import com.communityhub.repository.CommunityRepository;
 import com.communityhub.repository.InviteRepository;
 import com.communityhub.repository.UserRepository;
+import com.communityhub.security.CurrentUser;
+import com.communityhub.security.UserPrincipal;
 import com.communityhub.service.InviteService;
 import com.communityhub.service.MembershipService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
@@ -48,12 +49,12 @@ public class InviteController {
     public ResponseEntity<Map<String, Object>> sendInvite(
             @PathVariable Long communityId,
             @jakarta.validation.Valid @RequestBody SendInviteRequest request,
-            Authentication authentication) {
+            @CurrentUser Long userId) {
         
-        User user = getUserFromAuthentication(authentication);
+        User user = userRepository.getReferenceById(userId);
         
         // Check if user is administrator or moderator
-        if (!membershipService.isAdminOrModerator(user.getId(), communityId)) {
+        if (!membershipService.isAdminOrModerator(userId, communityId)) {
             return ResponseEntity.status(403).body(
                 Map.of("message", "Only administrators and moderators can send invitations")
             );
@@ -85,12 +86,10 @@ public class InviteController {
     @GetMapping("/api/communities/{communityId}/invites")
     public ResponseEntity<List<Map<String, Object>>> getCommunityInvites(
             @PathVariable Long communityId,
-            Authentication authentication) {
-        
-        User user = getUserFromAuthentication(authentication);
+            @CurrentUser Long userId) {
         
         // Check if user is member of the community
-        if (!membershipService.isMember(user.getId(), communityId)) {
+        if (!membershipService.isMember(userId, communityId)) {
             return ResponseEntity.status(403).build();
         }
         
@@ -109,12 +108,10 @@ public class InviteController {
             @PathVariable Long communityId,
             @PathVariable Long inviteId,
             @RequestParam(required = false, defaultValue = "false") boolean permanent,
-            Authentication authentication) {
-        
-        User user = getUserFromAuthentication(authentication);
+            @CurrentUser Long userId) {
         
         // Check if user is administrator or moderator
-        if (!membershipService.isAdminOrModerator(user.getId(), communityId)) {
+        if (!membershipService.isAdminOrModerator(userId, communityId)) {
             return ResponseEntity.status(403).body(
                 Map.of("message", "Only administrators and moderators can delete invitations")
             );
@@ -148,10 +145,8 @@ public class InviteController {
     }
     
     @GetMapping("/api/invites/my")
-    public ResponseEntity<List<Map<String, Object>>> getMyInvites(Authentication authentication) {
-        User user = getUserFromAuthentication(authentication);
-        
-        List<Invite> invites = inviteService.getUserInvites(user.getEmail());
+    public ResponseEntity<List<Map<String, Object>>> getMyInvites(@CurrentUser UserPrincipal currentUser) {
+        List<Invite> invites = inviteService.getUserInvites(currentUser.getEmail());
         
         List<Map<String, Object>> result = invites.stream()
                 .map(invite -> {
@@ -175,9 +170,10 @@ public class InviteController {
     @PostMapping("/api/invites/{token}/accept")
     public ResponseEntity<Map<String, Object>> acceptInviteAuthenticated(
             @PathVariable String token,
-            Authentication authentication) {
+            @CurrentUser Long userId) {
         try {
-            User user = getUserFromAuthentication(authentication);
+            User user = userRepository.findById(userId)
+                    .orElseThrow(() -> new RuntimeException("User not found"));
             inviteService.acceptInvite(token, user);
             
             return ResponseEntity.ok(Map.of(
@@ -221,10 +217,4 @@ public class InviteController {
         dto.put("invitedBy", invite.getInvitedBy().getFullName());
         return dto;
     }
-    
-    private User getUserFromAuthentication(Authentication authentication) {
-        String email = authentication.getName();
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-    }
 }
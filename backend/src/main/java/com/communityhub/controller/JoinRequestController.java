@@ -1,13 +1,11 @@
 package com.communityhub.controller;
 
 import com.communityhub.dto.JoinRequestDTO;
-import com.communityhub.model.User;
-import com.communityhub.repository.UserRepository;
+import com.communityhub.security.CurrentUser;
 import com.communityhub.service.JoinRequestService;
 import com.communityhub.service.MembershipService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
@@ -22,7 +20,6 @@ public class JoinRequestController {
     
     private final JoinRequestService joinRequestService;
     private final MembershipService membershipService;
-    private final UserRepository userRepository;
     
     @lombok.Data
     @lombok.NoArgsConstructor
@@ -36,12 +33,10 @@ public class JoinRequestController {
     public ResponseEntity<List<JoinRequestDTO>> getJoinRequests(
             @PathVariable Long communityId,
             @RequestParam(required = false) String status,
-            Authentication authentication) {
-        
-        User user = getUserFromAuthentication(authentication);
+            @CurrentUser Long userId) {
         
         // Check if user is administrator or moderator
-        if (!membershipService.isAdminOrModerator(user.getId(), communityId)) {
+        if (!membershipService.isAdminOrModerator(userId, communityId)) {
             return ResponseEntity.status(403).build();
         }
         
@@ -59,19 +54,17 @@ public class JoinRequestController {
     public ResponseEntity<Map<String, Object>> approveRequest(
             @PathVariable Long communityId,
             @PathVariable Long requestId,
-            Authentication authentication) {
-        
-        User user = getUserFromAuthentication(authentication);
+            @CurrentUser Long userId) {
         
         // Check if user is administrator or moderator
-        if (!membershipService.isAdminOrModerator(user.getId(), communityId)) {
+        if (!membershipService.isAdminOrModerator(userId, communityId)) {
             return ResponseEntity.status(403).body(
                 Map.of("message", "Only administrators and moderators can approve join requests")
             );
         }
         
         try {
-            JoinRequestDTO request = joinRequestService.approveRequest(requestId, user.getId());
+            JoinRequestDTO request = joinRequestService.approveRequest(requestId, userId);
             
             Map<String, Object> response = new HashMap<>();
             response.put("request", request);
@@ -90,12 +83,10 @@ public class JoinRequestController {
             @PathVariable Long communityId,
             @PathVariable Long requestId,
             @RequestBody(required = false) ReviewRequest reviewRequest,
-            Authentication authentication) {
-        
-        User user = getUserFromAuthentication(authentication);
+            @CurrentUser Long userId) {
         
         // Check if user is administrator or moderator
-        if (!membershipService.isAdminOrModerator(user.getId(), communityId)) {
+        if (!membershipService.isAdminOrModerator(userId, communityId)) {
             return ResponseEntity.status(403).body(
                 Map.of("message", "Only administrators and moderators can reject join requests")
             );
@@ -103,7 +94,7 @@ public class JoinRequestController {
         
         try {
             String reason = reviewRequest != null ? reviewRequest.getReviewNote() : null;
-            JoinRequestDTO request = joinRequestService.rejectRequest(requestId, user.getId(), reason);
+            JoinRequestDTO request = joinRequestService.rejectRequest(requestId, userId, reason);
             
             Map<String, Object> response = new HashMap<>();
             response.put("request", request);
@@ -120,12 +111,10 @@ public class JoinRequestController {
     @GetMapping("/pending-count")
     public ResponseEntity<Map<String, Long>> getPendingCount(
             @PathVariable Long communityId,
-            Authentication authentication) {
-        
-        User user = getUserFromAuthentication(authentication);
+            @CurrentUser Long userId) {
         
         // Check if user is member of the community
-        if (!membershipService.isMember(user.getId(), communityId)) {
+        if (!membershipService.isMember(userId, communityId)) {
             return ResponseEntity.status(403).build();
         }
         
@@ -137,12 +126,10 @@ public class JoinRequestController {
     public ResponseEntity<Map<String, String>> deleteRequest(
             @PathVariable Long communityId,
             @PathVariable Long requestId,
-            Authentication authentication) {
-        
-        User user = getUserFromAuthentication(authentication);
+            @CurrentUser Long userId) {
         
         // Check if user is administrator or moderator
-        if (!membershipService.isAdminOrModerator(user.getId(), communityId)) {
+        if (!membershipService.isAdminOrModerator(userId, communityId)) {
             return ResponseEntity.status(403).body(
                 Map.of("message", "Only administrators and moderators can delete join requests")
             );
@@ -157,10 +144,4 @@ public class JoinRequestController {
             );
         }
     }
-    
-    private User getUserFromAuthentication(Authentication authentication) {
-        String email = authentication.getName();
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-    }
 }
@@ -5,16 +5,18 @@ import com.communityhub.dto.MemberDetailsDTO;
 import com.communityhub.model.Membership;
 import com.communityhub.model.User;
 import com.communityhub.repository.UserRepository;
+import com.communityhub.security.CurrentUser;
 import com.communityhub.service.MemberManagementService;
 import com.communityhub.service.MembershipService;
+import com.communityhub.service.PresenceService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/communities/{communityId}/members")
@@ -24,8 +26,11 @@ public class MemberController {
     
     private final MemberManagementService memberManagementService;
     private final MembershipService membershipService;
+    private final PresenceService presenceService;
     private final UserRepository userRepository;
     
+    private static final int MAX_MEMBER_PAGE_SIZE = 200;
+    
     @lombok.Data
     @lombok.NoArgsConstructor
     @lombok.AllArgsConstructor
@@ -49,31 +54,47 @@ public class MemberController {
     }
     
     @GetMapping
-    public ResponseEntity<List<MemberDetailsDTO>> getCommunityMembers(
+    public ResponseEntity<Map<String, Object>> getCommunityMembers(
             @PathVariable Long communityId,
-            Authentication authentication) {
-        
-        User user = getUserFromAuthentication(authentication);
+            @RequestParam(required = false) Membership.RoleType role,
+            @RequestParam(required = false) String department,
+            @RequestParam(required = false) Boolean active,
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(defaultValue = "FULL") MemberManagementService.MemberView view,
+            @CurrentUser Long userId) {
         
         // Check if user is member of the community
-        if (!membershipService.isMember(user.getId(), communityId)) {
+        if (!membershipService.isMember(userId, communityId)) {
             return ResponseEntity.status(403).build();
         }
         
-        List<MemberDetailsDTO> members = memberManagementService.getCommunityMembers(communityId);
-        return ResponseEntity.ok(members);
+        MemberManagementService.MemberPage page = memberManagementService.getCommunityMembers(
+                communityId,
+                new MemberManagementService.MemberFilter(role, department, active, name),
+                cursor,
+                Math.max(1, Math.min(size, MAX_MEMBER_PAGE_SIZE)),
+                view);
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("members", page.members());
+        response.put("hasMore", page.hasMore());
+        if (page.nextCursor() != null) {
+            response.put("nextCursor", page.nextCursor());
+        }
+        
+        return ResponseEntity.ok(response);
     }
     
     @GetMapping("/{memberId}")
     public ResponseEntity<MemberDetailsDTO> getMemberDetails(
             @PathVariable Long communityId,
             @PathVariable Long memberId,
-            Authentication authentication) {
-        
-        User user = getUserFromAuthentication(authentication);
+            @CurrentUser Long userId) {
         
         // Check if user is member of the community
-        if (!membershipService.isMember(user.getId(), communityId)) {
+        if (!membershipService.isMember(userId, communityId)) {
             return ResponseEntity.status(403).build();
         }
         
@@ -85,12 +106,10 @@ public class MemberController {
     public ResponseEntity<Map<String, Object>> addMember(
             @PathVariable Long communityId,
             @jakarta.validation.Valid @RequestBody AddMemberRequest request,
-            Authentication authentication) {
-        
-        User user = getUserFromAuthentication(authentication);
+            @CurrentUser Long userId) {
         
         // Check if user is administrator or moderator
-        if (!membershipService.isAdminOrModerator(user.getId(), communityId)) {
+        if (!membershipService.isAdminOrModerator(userId, communityId)) {
             return ResponseEntity.status(403).body(
                 Map.of("message", "Only administrators and moderators can add members")
             );
@@ -135,12 +154,10 @@ public class MemberController {
             @PathVariable Long communityId,
             @PathVariable Long memberId,
             @jakarta.validation.Valid @RequestBody ChangeRoleRequest request,
-            Authentication authentication) {
-        
-        User user = getUserFromAuthentication(authentication);
+            @CurrentUser Long userId) {
         
         // Only administrators can change roles
-        if (!membershipService.isAdministrator(user.getId(), communityId)) {
+        if (!membershipService.isAdministrator(userId, communityId)) {
             return ResponseEntity.status(403).body(
                 Map.of("message", "Only administrators can change member roles")
             );
@@ -166,12 +183,10 @@ public class MemberController {
     public ResponseEntity<Map<String, String>> removeMember(
             @PathVariable Long communityId,
             @PathVariable Long memberId,
-            Authentication authentication) {
-        
-        User user = getUserFromAuthentication(authentication);
+            @CurrentUser Long userId) {
         
         // Check if user is administrator or moderator
-        if (!membershipService.isAdminOrModerator(user.getId(), communityId)) {
+        if (!membershipService.isAdminOrModerator(userId, communityId)) {
             return ResponseEntity.status(403).body(
                 Map.of("message", "Only administrators and moderators can remove members")
             );
@@ -191,12 +206,10 @@ public class MemberController {
     public ResponseEntity<List<ActivityDTO>> getMemberActivity(
             @PathVariable Long communityId,
             @PathVariable Long memberId,
-            Authentication authentication) {
-        
-        User user = getUserFromAuthentication(authentication);
+            @CurrentUser Long userId) {
         
         // Check if user is member of the community
-        if (!membershipService.isMember(user.getId(), communityId)) {
+        if (!membershipService.isMember(userId, communityId)) {
             return ResponseEntity.status(403).build();
         }
         
@@ -207,24 +220,20 @@ public class MemberController {
     @PostMapping("/leave")
     public ResponseEntity<Map<String, String>> leaveCommunity(
             @PathVariable Long communityId,
-            Authentication authentication) {
-        
-        User user = getUserFromAuthentication(authentication);
+            @CurrentUser Long userId) {
         
         try {
             // Check if user is a member
-            if (!membershipService.isMember(user.getId(), communityId)) {
+            if (!membershipService.isMember(userId, communityId)) {
                 return ResponseEntity.status(403).body(
                     Map.of("message", "You are not a member of this community")
                 );
             }
             
             // Prevent the last admin from leaving
-            if (membershipService.isAdministrator(user.getId(), communityId)) {
-                long adminCount = memberManagementService.getCommunityMembers(communityId)
-                    .stream()
-                    .filter(m -> "ADMINISTRATOR".equals(m.getRole()))
-                    .count();
+            if (membershipService.isAdministrator(userId, communityId)) {
+                long adminCount = membershipService.getActiveMemberCountsByRole(communityId)
+                    .getOrDefault(Membership.RoleType.ADMINISTRATOR, 0L);
                 
                 if (adminCount <= 1) {
                     return ResponseEntity.badRequest().body(
@@ -233,7 +242,7 @@ public class MemberController {
                 }
             }
             
-            memberManagementService.removeMember(communityId, user.getId());
+            memberManagementService.removeMember(communityId, userId);
             return ResponseEntity.ok(Map.of("message", "Successfully left the community"));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(
@@ -242,9 +251,15 @@ public class MemberController {
         }
     }
     
-    private User getUserFromAuthentication(Authentication authentication) {
-        String email = authentication.getName();
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+    @GetMapping("/online")
+    public ResponseEntity<Set<Long>> getOnlineMembers(
+            @PathVariable Long communityId,
+            @CurrentUser Long userId) {
+        
+        if (!membershipService.isMember(userId, communityId)) {
+            return ResponseEntity.status(403).build();
+        }
+        
+        return ResponseEntity.ok(presenceService.getOnlineUserIds(communityId));
     }
 }
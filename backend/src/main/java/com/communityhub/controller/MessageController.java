@@ -4,15 +4,18 @@ import com.communityhub.dto.MessageDTO;
 import com.communityhub.model.DMMessage;
 import com.communityhub.model.User;
 import com.communityhub.repository.DMMessageRepository;
-import com.communityhub.repository.UserRepository;
+import com.communityhub.security.CurrentUser;
+import com.communityhub.service.InboxService;
+import com.communityhub.service.UnreadCounterService;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -25,93 +28,101 @@ import java.util.stream.Collectors;
 public class MessageController {
     
     private final DMMessageRepository dmMessageRepository;
-    private final UserRepository userRepository;
+    private final InboxService inboxService;
+    private final UnreadCounterService unreadCounterService;
+    
+    private static final int MAX_PAGE_SIZE = 100;
     
     @GetMapping("/conversations")
     public ResponseEntity<List<Map<String, Object>>> getConversations(
             @RequestParam Long communityId,
-            Authentication authentication) {
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size,
+            @CurrentUser Long userId) {
         
-        User user = getUserFromAuthentication(authentication);
+        List<Map<String, Object>> conversations = inboxService.getInbox(
+                        userId, communityId, Math.max(page, 0), Math.max(1, Math.min(size, MAX_PAGE_SIZE)))
+                .stream()
+                .map(summary -> {
+                    User participant = summary.getOtherUser();
+                    Map<String, Object> conv = new HashMap<>();
+                    conv.put("userId", participant.getId());
+                    conv.put("name", participant.getFullName());
+                    conv.put("email", participant.getEmail());
+                    conv.put("profileImageUrl", participant.getProfileImageUrl());
+                    conv.put("lastMessage", summary.getLastMessagePreview());
+                    conv.put("lastMessageTime", summary.getLastActivityAt().toString());
+                    conv.put("lastMessageSenderId", summary.getLastSenderId());
+                    conv.put("unreadCount", summary.getUnreadCount().longValue());
+                    return conv;
+                })
+                .collect(Collectors.toList());
         
-        try {
-            List<Object> participants = dmMessageRepository.findConversationParticipants(
-                    user.getId(), 
-                    communityId
-            );
-            
-            List<Map<String, Object>> conversations = participants.stream()
-                    .map(p -> {
-                        User participant = (User) p;
-                        Map<String, Object> conv = new HashMap<>();
-                        conv.put("userId", participant.getId());
-                        conv.put("name", participant.getFullName());
-                        conv.put("email", participant.getEmail());
-                        conv.put("profileImageUrl", participant.getProfileImageUrl());
-                        
-                        // Get last message between users
-                        List<DMMessage> recentMessages = dmMessageRepository.findTopByUsersOrderByCreatedAtDesc(
-                                user.getId(), participant.getId());
-                        if (!recentMessages.isEmpty()) {
-                            DMMessage lastMsg = recentMessages.get(0);
-                            conv.put("lastMessage", lastMsg.getContent());
-                            conv.put("lastMessageTime", lastMsg.getCreatedAt().toString());
-                            conv.put("lastMessageSenderId", lastMsg.getSender().getId());
-                        }
-                        
-                        // Calculate unread count
-                        Long unreadCount = dmMessageRepository.countBySenderIdAndReceiverIdAndIsReadFalseAndIsDeletedFalse(
-                                participant.getId(), user.getId());
-                        conv.put("unreadCount", unreadCount);
-                        
-                        return conv;
-                    })
-                    .collect(Collectors.toList());
-            
-            return ResponseEntity.ok(conversations);
-        } catch (Exception e) {
-            System.err.println("Error fetching conversations: " + e.getMessage());
-            e.printStackTrace();
-            return ResponseEntity.ok(List.of()); // Return empty list instead of error
-        }
+        return ResponseEntity.ok(conversations);
     }
     
     @GetMapping("/conversation/{otherUserId}")
     public ResponseEntity<Map<String, Object>> getConversation(
             @PathVariable Long otherUserId,
-            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) String before,
+            @RequestParam(required = false) String after,
             @RequestParam(defaultValue = "50") int size,
-            Authentication authentication) {
+            @CurrentUser Long userId) {
         
-        User user = getUserFromAuthentication(authentication);
+        if (before != null && after != null) {
+            throw new IllegalArgumentException("Only one of 'before' or 'after' may be specified");
+        }
+        
+        int limit = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        // Fetch one extra row to know whether another page exists without a COUNT query
+        PageRequest window = PageRequest.of(0, limit + 1);
+        
+        List<DMMessage> messages;
+        if (after != null) {
+            MessageCursor cursor = MessageCursor.parse(after);
+            messages = new ArrayList<>(dmMessageRepository.findConversationAfter(
+                    userId, otherUserId, cursor.createdAt(), cursor.id(), window));
+        } else if (before != null) {
+            MessageCursor cursor = MessageCursor.parse(before);
+            messages = new ArrayList<>(dmMessageRepository.findConversationBefore(
+                    userId, otherUserId, cursor.createdAt(), cursor.id(), window));
+        } else {
+            messages = new ArrayList<>(dmMessageRepository.findConversationLatest(
+                    userId, otherUserId, window));
+        }
         
-        Page<DMMessage> messages = dmMessageRepository.findConversation(
-                user.getId(),
-                otherUserId,
-                PageRequest.of(page, size, Sort.by("createdAt").descending())
-        );
+        boolean hasMore = messages.size() > limit;
+        if (hasMore) {
+            messages = messages.subList(0, limit);
+        }
         
-        List<MessageDTO> messageDTOs = messages.getContent().stream()
+        // Newer-than queries run ascending from the cursor; always respond newest first
+        if (after != null) {
+            Collections.reverse(messages);
+        }
+        
+        List<MessageDTO> messageDTOs = messages.stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
         
         Map<String, Object> response = new HashMap<>();
         response.put("messages", messageDTOs);
-        response.put("totalPages", messages.getTotalPages());
-        response.put("totalElements", messages.getTotalElements());
-        response.put("currentPage", page);
+        response.put("hasMore", hasMore);
+        if (!messages.isEmpty()) {
+            // 'before' cursor for scrolling back, 'after' cursor for catching up on newer messages
+            response.put("nextCursor", MessageCursor.of(messages.get(messages.size() - 1)).toString());
+            response.put("prevCursor", MessageCursor.of(messages.get(0)).toString());
+        }
         
         return ResponseEntity.ok(response);
     }
     
     @GetMapping("/unread-count")
-    public ResponseEntity<Map<String, Long>> getUnreadCount(Authentication authentication) {
-        User user = getUserFromAuthentication(authentication);
-        
-        Long count = dmMessageRepository.countByReceiverIdAndIsReadFalseAndIsDeletedFalse(user.getId());
-        
-        Map<String, Long> response = new HashMap<>();
-        response.put("count", count);
+    public ResponseEntity<Map<String, Object>> getUnreadCount(@CurrentUser Long userId) {
+        // Served from the in-memory counters; keys of "communities" are community ids
+        Map<String, Object> response = new HashMap<>();
+        response.put("count", unreadCounterService.getTotal(userId));
+        response.put("communities", unreadCounterService.getByCommunity(userId));
         
         return ResponseEntity.ok(response);
     }
@@ -132,9 +143,33 @@ public class MessageController {
         return dto;
     }
     
-    private User getUserFromAuthentication(Authentication authentication) {
-        String email = authentication.getName();
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+    /**
+     * Position in a conversation expressed as "createdAt,id". The id breaks ties
+     * between messages stored within the same timestamp.
+     */
+    private record MessageCursor(LocalDateTime createdAt, Long id) {
+        
+        static MessageCursor of(DMMessage message) {
+            return new MessageCursor(message.getCreatedAt(), message.getId());
+        }
+        
+        static MessageCursor parse(String value) {
+            int separator = value.lastIndexOf(',');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Invalid cursor: " + value);
+            }
+            try {
+                return new MessageCursor(
+                        LocalDateTime.parse(value.substring(0, separator)),
+                        Long.parseLong(value.substring(separator + 1)));
+            } catch (DateTimeParseException | NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cursor: " + value);
+            }
+        }
+        
+        @Override
+        public String toString() {
+            return createdAt + "," + id;
+        }
     }
 }
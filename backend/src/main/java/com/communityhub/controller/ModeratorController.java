@@ -3,13 +3,11 @@ package com.communityhub.controller;
 import com.communityhub.dto.ActivityDTO;
 import com.communityhub.dto.ModeratorDetailsDTO;
 import com.communityhub.model.ModeratorPermission;
-import com.communityhub.model.User;
-import com.communityhub.repository.UserRepository;
+import com.communityhub.security.CurrentUser;
 import com.communityhub.service.MembershipService;
 import com.communityhub.service.ModeratorService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
@@ -24,7 +22,6 @@ public class ModeratorController {
     
     private final ModeratorService moderatorService;
     private final MembershipService membershipService;
-    private final UserRepository userRepository;
     
     @lombok.Data
     @lombok.NoArgsConstructor
@@ -43,12 +40,10 @@ public class ModeratorController {
     @GetMapping
     public ResponseEntity<List<ModeratorDetailsDTO>> getCommunityModerators(
             @PathVariable Long communityId,
-            Authentication authentication) {
-        
-        User user = getUserFromAuthentication(authentication);
+            @CurrentUser Long userId) {
         
         // Check if user is member of the community
-        if (!membershipService.isMember(user.getId(), communityId)) {
+        if (!membershipService.isMember(userId, communityId)) {
             return ResponseEntity.status(403).build();
         }
         
@@ -60,12 +55,10 @@ public class ModeratorController {
     public ResponseEntity<ModeratorDetailsDTO> getModeratorDetails(
             @PathVariable Long communityId,
             @PathVariable Long moderatorId,
-            Authentication authentication) {
-        
-        User user = getUserFromAuthentication(authentication);
+            @CurrentUser Long userId) {
         
         // Check if user is member of the community
-        if (!membershipService.isMember(user.getId(), communityId)) {
+        if (!membershipService.isMember(userId, communityId)) {
             return ResponseEntity.status(403).build();
         }
         
@@ -78,12 +71,10 @@ public class ModeratorController {
             @PathVariable Long communityId,
             @PathVariable Long moderatorId,
             @RequestBody UpdatePermissionsRequest request,
-            Authentication authentication) {
-        
-        User user = getUserFromAuthentication(authentication);
+            @CurrentUser Long userId) {
         
         // Only administrators can update moderator permissions
-        if (!membershipService.isAdministrator(user.getId(), communityId)) {
+        if (!membershipService.isAdministrator(userId, communityId)) {
             return ResponseEntity.status(403).body(
                 Map.of("message", "Only administrators can update moderator permissions")
             );
@@ -119,22 +110,14 @@ public class ModeratorController {
             @PathVariable Long communityId,
             @PathVariable Long moderatorId,
             @RequestParam(defaultValue = "50") int limit,
-            Authentication authentication) {
-        
-        User user = getUserFromAuthentication(authentication);
+            @CurrentUser Long userId) {
         
         // Check if user is administrator or the moderator themselves
-        if (!membershipService.isAdministrator(user.getId(), communityId)) {
+        if (!membershipService.isAdministrator(userId, communityId)) {
             return ResponseEntity.status(403).build();
         }
         
         List<ActivityDTO> actions = moderatorService.getModeratorActions(moderatorId, limit);
         return ResponseEntity.ok(actions);
     }
-    
-    private User getUserFromAuthentication(Authentication authentication) {
-        String email = authentication.getName();
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-    }
 }
@@ -1,12 +1,28 @@
 package com.communityhub.controller;
 
+import com.communityhub.config.OutboundDeliveryMetrics;
+import com.communityhub.config.SlowConsumerGuard;
+import com.communityhub.dto.AuthorizationCacheStatsDTO;
 import com.communityhub.dto.CommunityStatsDTO;
 import com.communityhub.dto.GlobalStatsDTO;
+import com.communityhub.dto.MessageVolumeBucketDTO;
+import com.communityhub.dto.OutboundDeliveryStatsDTO;
+import com.communityhub.dto.PasswordHashingStatsDTO;
+import com.communityhub.dto.SearchIndexStatsDTO;
+import com.communityhub.dto.SlowConsumerStatsDTO;
+import com.communityhub.security.BoundedPasswordEncoder;
+import com.communityhub.service.AuthorizationCache;
+import com.communityhub.service.CommunitySearchIndex;
+import com.communityhub.service.MessageVolumeService;
 import com.communityhub.service.StatisticsService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/statistics")
 @RequiredArgsConstructor
@@ -14,6 +30,12 @@ import org.springframework.web.bind.annotation.*;
 public class StatisticsController {
     
     private final StatisticsService statisticsService;
+    private final OutboundDeliveryMetrics outboundDeliveryMetrics;
+    private final SlowConsumerGuard slowConsumerGuard;
+    private final AuthorizationCache authorizationCache;
+    private final BoundedPasswordEncoder passwordEncoder;
+    private final MessageVolumeService messageVolumeService;
+    private final CommunitySearchIndex communitySearchIndex;
     
     @GetMapping("/global")
     public ResponseEntity<GlobalStatsDTO> getGlobalStats() {
@@ -26,4 +48,45 @@ public class StatisticsController {
         CommunityStatsDTO stats = statisticsService.getCommunityStats(communityId);
         return ResponseEntity.ok(stats);
     }
+    
+    /**
+     * Message volume between {@code from} (inclusive) and {@code to} (exclusive),
+     * by default the last 7 days, in HOUR, DAY or WEEK buckets.
+     */
+    @GetMapping("/communities/{communityId}/timeseries")
+    public ResponseEntity<List<MessageVolumeBucketDTO>> getMessageVolume(
+            @PathVariable Long communityId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "HOUR") MessageVolumeService.Granularity bucket) {
+        
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from : end.minusDays(7);
+        return ResponseEntity.ok(messageVolumeService.getTimeseries(communityId, start, end, bucket));
+    }
+    
+    @GetMapping("/websocket/outbound")
+    public ResponseEntity<OutboundDeliveryStatsDTO> getOutboundDeliveryStats() {
+        return ResponseEntity.ok(outboundDeliveryMetrics.snapshot());
+    }
+    
+    @GetMapping("/websocket/slow-consumers")
+    public ResponseEntity<SlowConsumerStatsDTO> getSlowConsumerStats() {
+        return ResponseEntity.ok(slowConsumerGuard.snapshot());
+    }
+    
+    @GetMapping("/authorization-cache")
+    public ResponseEntity<AuthorizationCacheStatsDTO> getAuthorizationCacheStats() {
+        return ResponseEntity.ok(authorizationCache.getStats());
+    }
+    
+    @GetMapping("/password-hashing")
+    public ResponseEntity<PasswordHashingStatsDTO> getPasswordHashingStats() {
+        return ResponseEntity.ok(passwordEncoder.getStats());
+    }
+    
+    @GetMapping("/search-index")
+    public ResponseEntity<SearchIndexStatsDTO> getSearchIndexStats() {
+        return ResponseEntity.ok(communitySearchIndex.getStats());
+    }
 }
@@ -1,12 +1,26 @@
 package com.communityhub.controller;
 
 import com.communityhub.dto.MessageDTO;
+import com.communityhub.dto.ReadReceiptDTO;
+import com.communityhub.dto.RoomMessageDTO;
+import com.communityhub.model.ChannelMessage;
 import com.communityhub.model.Community;
 import com.communityhub.model.DMMessage;
+import com.communityhub.model.GroupChatMessage;
 import com.communityhub.model.User;
+import com.communityhub.repository.ChannelMessageRepository;
+import com.communityhub.repository.ChannelRepository;
 import com.communityhub.repository.CommunityRepository;
-import com.communityhub.repository.DMMessageRepository;
+import com.communityhub.repository.GroupChatMessageRepository;
+import com.communityhub.repository.GroupChatRepository;
 import com.communityhub.repository.UserRepository;
+import com.communityhub.security.UserPrincipal;
+import com.communityhub.service.ChannelMessagePipeline;
+import com.communityhub.service.ChatRoomDirectory;
+import com.communityhub.service.DMPersistencePipeline;
+import com.communityhub.service.DirectMessageService;
+import com.communityhub.service.GroupChatMessagePipeline;
+import com.communityhub.service.MembershipService;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import org.springframework.messaging.handler.annotation.MessageMapping;
@@ -16,15 +30,28 @@ import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Controller;
 
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Controller
 @RequiredArgsConstructor
 public class WebSocketController {
     
     private final SimpMessagingTemplate messagingTemplate;
-    private final DMMessageRepository dmMessageRepository;
     private final UserRepository userRepository;
     private final CommunityRepository communityRepository;
+    private final DMPersistencePipeline dmPersistencePipeline;
+    private final DirectMessageService directMessageService;
+    private final ChannelRepository channelRepository;
+    private final ChannelMessageRepository channelMessageRepository;
+    private final GroupChatRepository groupChatRepository;
+    private final GroupChatMessageRepository groupChatMessageRepository;
+    private final ChannelMessagePipeline channelMessagePipeline;
+    private final GroupChatMessagePipeline groupChatMessagePipeline;
+    private final ChatRoomDirectory chatRoomDirectory;
+    private final MembershipService membershipService;
     
     @Data
     public static class ChatMessage {
@@ -34,26 +61,49 @@ public class WebSocketController {
         private String type; // "DM", "GROUP", "CHANNEL"
     }
     
+    @Data
+    public static class RoomChatMessage {
+        private Long roomId; // Channel id or group chat id, depending on the destination
+        private String content;
+        private Long parentMessageId;
+    }
+    
+    @Data
+    public static class MarkConversationReadRequest {
+        private Long otherUserId;
+        private Long communityId;
+        // Watermark: everything up to (upToCreatedAt, upToMessageId) is read
+        private LocalDateTime upToCreatedAt;
+        private Long upToMessageId;
+    }
+    
     @MessageMapping("/chat.sendMessage")
     @SuppressWarnings("null")
     public void sendMessage(@Payload ChatMessage message, Authentication authentication) {
         try {
-            String senderEmail = authentication.getName();
-            User sender = userRepository.findByEmail(senderEmail)
-                    .orElseThrow(() -> new RuntimeException("Sender not found"));
-            
-            User receiver = userRepository.findById(message.getReceiverId())
-                    .orElseThrow(() -> new RuntimeException("Receiver not found"));
+            Long senderId = currentUser(authentication).getId();
             
             // Prevent sending messages to yourself
-            if (sender.getId().equals(receiver.getId())) {
+            if (senderId.equals(message.getReceiverId())) {
                 throw new RuntimeException("You cannot send messages to yourself");
             }
             
-            Community community = communityRepository.findById(message.getCommunityId())
-                    .orElseThrow(() -> new RuntimeException("Community not found"));
+            // Both participants in one query; the sender id comes from the token
+            Map<Long, User> participants = userRepository.findAllById(List.of(senderId, message.getReceiverId()))
+                    .stream()
+                    .collect(Collectors.toMap(User::getId, Function.identity()));
+            User sender = participants.get(senderId);
+            if (sender == null) {
+                throw new RuntimeException("Sender not found");
+            }
+            User receiver = participants.get(message.getReceiverId());
+            if (receiver == null) {
+                throw new RuntimeException("Receiver not found");
+            }
+            
+            // Reference only: the FK is checked when the pipeline flushes the row
+            Community community = communityRepository.getReferenceById(message.getCommunityId());
             
-            // Save DM message
             DMMessage dmMessage = new DMMessage();
             dmMessage.setSender(sender);
             dmMessage.setReceiver(receiver);
@@ -62,13 +112,8 @@ public class WebSocketController {
             dmMessage.setIsRead(false);
             dmMessage.setIsDeleted(false);
             
-            DMMessage saved = dmMessageRepository.save(dmMessage);
-            
-            System.out.println("✅ Message saved to database with ID: " + saved.getId());
-            System.out.println("   Sender: " + sender.getId() + " (" + sender.getEmail() + ")");
-            System.out.println("   Receiver: " + receiver.getId() + " (" + receiver.getEmail() + ")");
-            System.out.println("   Community: " + community.getId());
-            System.out.println("   Content: " + saved.getContent());
+            // Id and timestamp are assigned up front; the row is written by the batch pipeline
+            DMMessage saved = dmPersistencePipeline.persist(dmMessage);
             
             // Convert to DTO
             MessageDTO messageDTO = new MessageDTO();
@@ -82,7 +127,6 @@ public class WebSocketController {
             messageDTO.setCreatedAt(saved.getCreatedAt().toString());
             messageDTO.setTimestamp(saved.getCreatedAt().toString());
             
-            System.out.println("📤 Sending message to receiver: " + receiver.getEmail());
             // Send to receiver
             messagingTemplate.convertAndSendToUser(
                     receiver.getEmail(),
@@ -90,7 +134,6 @@ public class WebSocketController {
                     messageDTO
             );
             
-            System.out.println("📤 Sending confirmation to sender: " + sender.getEmail());
             // Send confirmation to sender
             messagingTemplate.convertAndSendToUser(
                     sender.getEmail(),
@@ -105,14 +148,178 @@ public class WebSocketController {
         }
     }
     
+    @MessageMapping("/chat.sendChannelMessage")
+    @SuppressWarnings("null")
+    public void sendChannelMessage(@Payload RoomChatMessage message, Authentication authentication) {
+        UserPrincipal sender = currentUser(authentication);
+        
+        Long communityId = chatRoomDirectory.getChannelCommunityId(message.getRoomId())
+                .orElseThrow(() -> new RuntimeException("Channel not found"));
+        
+        if (!membershipService.isMember(sender.getId(), communityId)) {
+            throw new RuntimeException("You are not a member of this community");
+        }
+        
+        ChannelMessage channelMessage = new ChannelMessage();
+        channelMessage.setChannel(channelRepository.getReferenceById(message.getRoomId()));
+        // Reference only: the sender comes from the token
+        channelMessage.setSender(userRepository.getReferenceById(sender.getId()));
+        channelMessage.setSenderEmail(sender.getEmail());
+        channelMessage.setCommunityId(communityId);
+        channelMessage.setContent(message.getContent());
+        channelMessage.setIsDeleted(false);
+        if (message.getParentMessageId() != null) {
+            channelMessage.setParentMessage(channelMessageRepository.getReferenceById(message.getParentMessageId()));
+        }
+        
+        ChannelMessage saved = channelMessagePipeline.persist(channelMessage);
+        
+        // One publish per topic; the broker fans out to every subscriber
+        messagingTemplate.convertAndSend(
+                "/topic/channel." + message.getRoomId(),
+                toRoomMessageDTO("CHANNEL", message.getRoomId(), communityId, sender,
+                        saved.getId(), saved.getContent(), message.getParentMessageId(), saved.getCreatedAt())
+        );
+    }
+    
+    @MessageMapping("/chat.sendGroupMessage")
+    @SuppressWarnings("null")
+    public void sendGroupMessage(@Payload RoomChatMessage message, Authentication authentication) {
+        UserPrincipal sender = currentUser(authentication);
+        
+        ChatRoomDirectory.GroupRoom room = chatRoomDirectory.getGroupRoom(message.getRoomId())
+                .orElseThrow(() -> new RuntimeException("Group chat not found"));
+        
+        // Removal from the community does not drop the user from its groups' member lists
+        if (!membershipService.isMember(sender.getId(), room.communityId())) {
+            throw new RuntimeException("You are not a member of this community");
+        }
+        
+        if (!room.memberIds().contains(sender.getId())) {
+            throw new RuntimeException("You are not a member of this group chat");
+        }
+        
+        GroupChatMessage groupMessage = new GroupChatMessage();
+        groupMessage.setGroupChat(groupChatRepository.getReferenceById(message.getRoomId()));
+        groupMessage.setSender(userRepository.getReferenceById(sender.getId()));
+        groupMessage.setSenderEmail(sender.getEmail());
+        groupMessage.setCommunityId(room.communityId());
+        groupMessage.setContent(message.getContent());
+        groupMessage.setIsPinned(false);
+        groupMessage.setIsDeleted(false);
+        if (message.getParentMessageId() != null) {
+            groupMessage.setParentMessage(groupChatMessageRepository.getReferenceById(message.getParentMessageId()));
+        }
+        
+        GroupChatMessage saved = groupChatMessagePipeline.persist(groupMessage);
+        
+        messagingTemplate.convertAndSend(
+                "/topic/group." + message.getRoomId(),
+                toRoomMessageDTO("GROUP", message.getRoomId(), room.communityId(), sender,
+                        saved.getId(), saved.getContent(), message.getParentMessageId(), saved.getCreatedAt())
+        );
+    }
+    
+    private RoomMessageDTO toRoomMessageDTO(String roomType, Long roomId, Long communityId, UserPrincipal sender,
+                                            Long messageId, String content, Long parentMessageId,
+                                            LocalDateTime createdAt) {
+        return RoomMessageDTO.builder()
+                .id(messageId)
+                .roomType(roomType)
+                .roomId(roomId)
+                .communityId(communityId)
+                .senderId(sender.getId())
+                .senderName(senderName(sender))
+                .content(content)
+                .parentMessageId(parentMessageId)
+                .createdAt(createdAt.toString())
+                .timestamp(createdAt.toString())
+                .build();
+    }
+    
     @MessageMapping("/chat.markAsRead")
     @SuppressWarnings("null")
     public void markAsRead(@Payload Long messageId, Authentication authentication) {
-        DMMessage message = dmMessageRepository.findById(messageId)
-                .orElseThrow(() -> new RuntimeException("Message not found"));
+        if (messageId == null) {
+            throw new RuntimeException("messageId is required");
+        }
+        
+        // The message may still be queued for writing, so the read is applied after it
+        LocalDateTime readAt = LocalDateTime.now();
+        dmPersistencePipeline.afterQueuedWrites(() -> directMessageService.markMessageRead(messageId, readAt))
+                .exceptionally(error -> {
+                    System.err.println("Failed to mark message " + messageId + " read: " + error.getMessage());
+                    return null;
+                });
+    }
+    
+    @MessageMapping("/chat.markConversationRead")
+    @SuppressWarnings("null")
+    public void markConversationRead(@Payload MarkConversationReadRequest request, Authentication authentication) {
+        Long readerId = currentUser(authentication).getId();
+        
+        if (request.getOtherUserId() == null || request.getCommunityId() == null
+                || request.getUpToCreatedAt() == null || request.getUpToMessageId() == null) {
+            throw new RuntimeException("otherUserId, communityId, upToCreatedAt and upToMessageId are required");
+        }
+        
+        // The watermark message may still be queued for writing. Its insert raises the
+        // inbox unread count, so the read must be applied after it, not before.
+        LocalDateTime readAt = LocalDateTime.now();
+        dmPersistencePipeline.afterQueuedWrites(() -> applyConversationRead(readerId, request, readAt))
+                .exceptionally(error -> {
+                    System.err.println("Failed to mark conversation read: " + error.getMessage());
+                    return null;
+                });
+    }
+    
+    private void applyConversationRead(Long readerId, MarkConversationReadRequest request, LocalDateTime readAt) {
+        int readCount = directMessageService.markConversationRead(
+                readerId,
+                request.getOtherUserId(),
+                request.getCommunityId(),
+                request.getUpToCreatedAt(),
+                request.getUpToMessageId(),
+                readAt
+        );
+        
+        if (readCount == 0) {
+            return;
+        }
+        
+        // One aggregated receipt for the whole range instead of one per message
+        User sender = userRepository.findById(request.getOtherUserId())
+                .orElseThrow(() -> new RuntimeException("Sender not found"));
         
-        message.setIsRead(true);
-        message.setReadAt(LocalDateTime.now());
-        dmMessageRepository.save(message);
+        ReadReceiptDTO receipt = ReadReceiptDTO.builder()
+                .readerId(readerId)
+                .communityId(request.getCommunityId())
+                .upToMessageId(request.getUpToMessageId())
+                .readCount(readCount)
+                .readAt(readAt.toString())
+                .build();
+        
+        messagingTemplate.convertAndSendToUser(
+                sender.getEmail(),
+                "/queue/read-receipts",
+                receipt
+        );
+    }
+    
+    // Tokens issued before the name claim was added fall back to the database until they expire
+    private String senderName(UserPrincipal sender) {
+        if (sender.getFullName() != null) {
+            return sender.getFullName();
+        }
+        return userRepository.findById(sender.getId())
+                .map(User::getFullName)
+                .orElseThrow(() -> new RuntimeException("Sender not found"));
+    }
+    
+    private UserPrincipal currentUser(Authentication authentication) {
+        if (authentication == null || !(authentication.getPrincipal() instanceof UserPrincipal user)) {
+            throw new RuntimeException("User not authenticated");
+        }
+        return user;
     }
 }
@@ -0,0 +1,18 @@
+package com.communityhub.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuthorizationCacheStatsDTO {
+    private int size;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private double hitRate;
+}
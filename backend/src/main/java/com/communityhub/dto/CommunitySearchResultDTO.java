@@ -0,0 +1,17 @@
+package com.communityhub.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CommunitySearchResultDTO {
+    private Long id;
+    private String name;
+    private String description;
+    private double score;
+}
@@ -5,6 +5,8 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDateTime;
+
 @Data
 @Builder
 @NoArgsConstructor
@@ -17,6 +19,8 @@ public class CommunityStatsDTO {
     private long groupChats;
     private long totalMessages;
     private long activeUsers;
+    private long onlineNow;
     private long administratorCount;
     private long moderatorCount;
+    private LocalDateTime computedAt;
 }
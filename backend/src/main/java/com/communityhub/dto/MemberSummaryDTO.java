@@ -0,0 +1,23 @@
+package com.communityhub.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Compact member row for list views; see {@link MemberDetailsDTO} for the
+ * full field set.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MemberSummaryDTO {
+    private Long id;
+    private Long userId;
+    private String fullName;
+    private String role;
+    private String profileImageUrl;
+    private Boolean isActive;
+}
@@ -0,0 +1,22 @@
+package com.communityhub.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Sent to a message's sender on /user/queue/message-failures when a message that
+ * was already delivered could not be stored.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MessageFailureDTO {
+    private Long messageId;
+    private String roomType; // "DM", "CHANNEL" or "GROUP"
+    private Long roomId; // Receiver id for DMs, otherwise the channel or group chat id
+    private Long communityId;
+    private String reason;
+}
@@ -0,0 +1,20 @@
+package com.communityhub.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MessageVolumeBucketDTO {
+    private LocalDateTime bucketStart;
+    private long dmMessages;
+    private long channelMessages;
+    private long groupChatMessages;
+    private long totalMessages;
+}
@@ -0,0 +1,21 @@
+package com.communityhub.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboundDeliveryStatsDTO {
+    private int threads;
+    private int sessionQueueCapacity;
+    private long queuedFrames;
+    private int sessionsWithBacklog;
+    private long delivered;
+    private long rejected;
+    private long averageLatencyMicros;
+    private long maxLatencyMicros;
+}
@@ -0,0 +1,19 @@
+package com.communityhub.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PresenceDeltaDTO {
+    private Long communityId;
+    private List<Long> online;
+    private List<Long> offline;
+    private String timestamp;
+}
@@ -0,0 +1,18 @@
+package com.communityhub.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReadReceiptDTO {
+    private Long readerId;
+    private Long communityId;
+    private Long upToMessageId;
+    private int readCount;
+    private String readAt;
+}
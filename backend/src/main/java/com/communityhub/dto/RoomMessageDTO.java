@@ -0,0 +1,23 @@
+package com.communityhub.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoomMessageDTO {
+    private Long id;
+    private String roomType; // "CHANNEL" or "GROUP"
+    private Long roomId;
+    private Long communityId;
+    private Long senderId;
+    private String senderName;
+    private String content;
+    private Long parentMessageId;
+    private String createdAt;
+    private String timestamp; // Alias for createdAt for frontend compatibility
+}
@@ -0,0 +1,17 @@
+package com.communityhub.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchIndexStatsDTO {
+    private int documents;
+    private long queries;
+    private long averageLatencyMicros;
+    private long maxLatencyMicros;
+}
@@ -0,0 +1,18 @@
+package com.communityhub.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SlowConsumerStatsDTO {
+    private long droppedFrames;
+    private long forcedDisconnects;
+    private int sessionsBehind;
+    private int sendBufferSizeLimit;
+    private int sendTimeLimitMs;
+}
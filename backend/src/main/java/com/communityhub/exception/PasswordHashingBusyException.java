@@ -0,0 +1,19 @@
+package com.communityhub.exception;
+
+/**
+ * Thrown when the password hashing pool is saturated. Mapped to
+ * 503 Service Unavailable with a Retry-After header.
+ */
+public class PasswordHashingBusyException extends RuntimeException {
+    
+    private final int retryAfterSeconds;
+    
+    public PasswordHashingBusyException(int retryAfterSeconds) {
+        super("Too many sign-in requests, please retry shortly");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+    
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -12,7 +12,11 @@ import java.util.HashSet;
 import java.util.Set;
 
 @Entity
-@Table(name = "channels")
+@Table(name = "channels",
+    indexes = {
+        @Index(name = "idx_channel_community_id", columnList = "community_id")
+    }
+)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -9,7 +9,11 @@ import org.hibernate.annotations.CreationTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "channel_messages")
+@Table(name = "channel_messages",
+    indexes = {
+        @Index(name = "idx_channel_message_channel_id", columnList = "channel_id")
+    }
+)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -46,4 +50,12 @@ public class ChannelMessage {
     private LocalDateTime createdAt;
     
     private LocalDateTime editedAt;
+    
+    // Set by the send path so the write pipeline can notify the sender without loading the user
+    @Transient
+    private String senderEmail;
+    
+    // Set by the send path from the room lookup it already did; the write pipeline counts by it
+    @Transient
+    private Long communityId;
 }
@@ -17,7 +17,10 @@ import java.util.UUID;
     indexes = {
         @Index(name = "idx_community_is_private", columnList = "is_private"),
         @Index(name = "idx_community_is_active", columnList = "is_active"),
-        @Index(name = "idx_community_join_code", columnList = "join_code")
+        @Index(name = "idx_community_join_code", columnList = "join_code"),
+        @Index(name = "idx_community_directory_name", columnList = "is_private, is_active, name"),
+        @Index(name = "idx_community_directory_members", columnList = "is_private, is_active, member_count"),
+        @Index(name = "idx_community_directory_created", columnList = "is_private, is_active, created_at")
     }
 )
 @Data
@@ -49,6 +52,10 @@ public class Community {
     @Column(nullable = false)
     private Boolean isActive = true;
     
+    // Active members; maintained by StatisticsCounterService with SQL, never written through JPA
+    @Column(insertable = false, updatable = false, columnDefinition = "bigint not null default 0")
+    private long memberCount;
+    
     @CreationTimestamp
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -0,0 +1,72 @@
+package com.communityhub.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Statistics counters, one row per community plus the global row
+ * ({@link #GLOBAL_ID}). Adjusted in the same transaction as the writes they
+ * count and periodically reconciled against the source tables, so reading
+ * statistics is a primary-key lookup.
+ *
+ * <p>The community, public/private and user counts are only kept on the global
+ * row. Active users are not counted here but by {@code LastSeenRecorder}.
+ */
+@Entity
+@Table(name = "community_counters")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CommunityCounters {
+    
+    public static final long GLOBAL_ID = 0L;
+    
+    @Id
+    @Column(name = "community_id")
+    private Long communityId;
+    
+    @Column(columnDefinition = "bigint not null default 0")
+    private long memberCount;
+    
+    @Column(columnDefinition = "bigint not null default 0")
+    private long administratorCount;
+    
+    @Column(columnDefinition = "bigint not null default 0")
+    private long moderatorCount;
+    
+    @Column(columnDefinition = "bigint not null default 0")
+    private long pendingRequestCount;
+    
+    @Column(columnDefinition = "bigint not null default 0")
+    private long channelCount;
+    
+    @Column(columnDefinition = "bigint not null default 0")
+    private long groupChatCount;
+    
+    @Column(columnDefinition = "bigint not null default 0")
+    private long channelMessageCount;
+    
+    @Column(columnDefinition = "bigint not null default 0")
+    private long groupChatMessageCount;
+    
+    @Column(columnDefinition = "bigint not null default 0")
+    private long dmMessageCount;
+    
+    @Column(columnDefinition = "bigint not null default 0")
+    private long communityCount;
+    
+    @Column(columnDefinition = "bigint not null default 0")
+    private long publicCommunityCount;
+    
+    @Column(columnDefinition = "bigint not null default 0")
+    private long privateCommunityCount;
+    
+    @Column(columnDefinition = "bigint not null default 0")
+    private long userCount;
+    
+    private LocalDateTime reconciledAt;
+}
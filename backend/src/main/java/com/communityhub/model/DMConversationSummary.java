@@ -0,0 +1,60 @@
+package com.communityhub.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One inbox row per (owner, other user, community). Maintained incrementally by
+ * the DM send and read paths so the conversation list never scans dm_messages.
+ */
+@Entity
+@Table(name = "dm_conversation_summaries",
+    uniqueConstraints = {
+        @UniqueConstraint(name = "uk_dm_conversation_summary", columnNames = {"owner_id", "other_user_id", "community_id"})
+    },
+    indexes = {
+        @Index(name = "idx_dm_conversation_summary_inbox", columnList = "owner_id, community_id, last_activity_at, id")
+    }
+)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DMConversationSummary {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "owner_id", nullable = false)
+    private User owner;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "other_user_id", nullable = false)
+    private User otherUser;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "community_id", nullable = false)
+    private Community community;
+    
+    private Long lastMessageId;
+    
+    @Column(length = 500)
+    private String lastMessagePreview;
+    
+    private Long lastSenderId;
+    
+    @Column(nullable = false)
+    private Integer unreadCount = 0;
+    
+    // Bumped on every unread_count change so cached counters can order updates
+    @Column(columnDefinition = "bigint not null default 0")
+    private Long unreadVersion = 0L;
+    
+    @Column(nullable = false)
+    private LocalDateTime lastActivityAt;
+}
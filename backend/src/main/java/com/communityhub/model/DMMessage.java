@@ -16,7 +16,7 @@ import java.time.LocalDateTime;
         @Index(name = "idx_dm_message_community_id", columnList = "community_id"),
         @Index(name = "idx_dm_message_is_read", columnList = "is_read"),
         @Index(name = "idx_dm_message_created_at", columnList = "created_at"),
-        @Index(name = "idx_dm_message_conversation", columnList = "sender_id, receiver_id, created_at")
+        @Index(name = "idx_dm_message_conversation_key", columnList = "low_user_id, high_user_id, created_at, id")
     }
 )
 @Data
@@ -36,6 +36,12 @@ public class DMMessage {
     @JoinColumn(name = "receiver_id", nullable = false)
     private User receiver;
     
+    // Canonical conversation key: the pair (min, max) of sender and receiver ids.
+    // Left nullable so schema update can add it to existing rows before backfill.
+    private Long lowUserId;
+    
+    private Long highUserId;
+    
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "community_id", nullable = false)
     private Community community;
@@ -58,4 +64,12 @@ public class DMMessage {
     private LocalDateTime createdAt;
     
     private LocalDateTime readAt;
+    
+    @PrePersist
+    public void assignConversationKey() {
+        Long senderId = sender.getId();
+        Long receiverId = receiver.getId();
+        lowUserId = Math.min(senderId, receiverId);
+        highUserId = Math.max(senderId, receiverId);
+    }
 }
@@ -12,7 +12,11 @@ import java.util.HashSet;
 import java.util.Set;
 
 @Entity
-@Table(name = "group_chats")
+@Table(name = "group_chats",
+    indexes = {
+        @Index(name = "idx_group_chat_community_id", columnList = "community_id")
+    }
+)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
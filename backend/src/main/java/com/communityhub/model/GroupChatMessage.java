@@ -9,7 +9,11 @@ import org.hibernate.annotations.CreationTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "group_chat_messages")
+@Table(name = "group_chat_messages",
+    indexes = {
+        @Index(name = "idx_group_chat_message_group_chat_id", columnList = "group_chat_id")
+    }
+)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -49,4 +53,12 @@ public class GroupChatMessage {
     private LocalDateTime createdAt;
     
     private LocalDateTime editedAt;
+    
+    // Set by the send path so the write pipeline can notify the sender without loading the user
+    @Transient
+    private String senderEmail;
+    
+    // Set by the send path from the room lookup it already did; the write pipeline counts by it
+    @Transient
+    private Long communityId;
 }
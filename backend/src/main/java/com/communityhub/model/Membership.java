@@ -16,7 +16,8 @@ import java.time.LocalDateTime;
     },
     indexes = {
         @Index(name = "idx_membership_user_id", columnList = "user_id"),
-        @Index(name = "idx_membership_community_id", columnList = "community_id"),
+        @Index(name = "idx_membership_community_active_role", columnList = "community_id, is_active, role"),
+        @Index(name = "idx_membership_community_id_id", columnList = "community_id, id"),
         @Index(name = "idx_membership_role", columnList = "role"),
         @Index(name = "idx_membership_is_active", columnList = "is_active"),
         @Index(name = "idx_membership_moderator_permission_id", columnList = "moderator_permission_id")
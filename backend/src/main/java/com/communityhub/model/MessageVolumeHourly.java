@@ -0,0 +1,44 @@
+package com.communityhub.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Messages sent per community per hour, by kind. Incremented by the message
+ * pipelines in the same transaction as the rows they count, so time series
+ * never scan the message tables.
+ */
+@Entity
+@Table(name = "message_volume_hourly",
+    uniqueConstraints = {
+        @UniqueConstraint(name = "uk_message_volume_hourly", columnNames = {"community_id", "bucket_start"})
+    }
+)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MessageVolumeHourly {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "community_id", nullable = false)
+    private Long communityId;
+    
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+    
+    @Column(columnDefinition = "bigint not null default 0")
+    private long dmMessageCount;
+    
+    @Column(columnDefinition = "bigint not null default 0")
+    private long channelMessageCount;
+    
+    @Column(columnDefinition = "bigint not null default 0")
+    private long groupChatMessageCount;
+}
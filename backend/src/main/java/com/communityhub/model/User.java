@@ -15,7 +15,8 @@ import java.util.Set;
 @Table(name = "users",
     indexes = {
         @Index(name = "idx_user_email", columnList = "email"),
-        @Index(name = "idx_user_last_login", columnList = "last_login_at")
+        @Index(name = "idx_user_last_login", columnList = "last_login_at"),
+        @Index(name = "idx_user_revoked_at", columnList = "revoked_at")
     }
 )
 @Data
@@ -65,6 +66,9 @@ public class User {
     
     private LocalDateTime lastLoginAt;
     
+    // Set together with is_active = false; tokens issued up to this time are refused
+    private LocalDateTime revokedAt;
+    
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL)
     private Set<Membership> memberships = new HashSet<>();
     
@@ -2,11 +2,18 @@ package com.communityhub.repository;
 
 import com.communityhub.model.Channel;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ChannelRepository extends JpaRepository<Channel, Long> {
     List<Channel> findByCommunityIdAndIsActiveTrue(Long communityId);
+    
+    long countByCommunityId(Long communityId);
+    
+    @Query("SELECT c.community.id FROM Channel c WHERE c.id = :channelId AND c.isActive = true")
+    Optional<Long> findActiveCommunityId(Long channelId);
 }
@@ -0,0 +1,9 @@
+package com.communityhub.repository;
+
+import com.communityhub.model.CommunityCounters;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CommunityCountersRepository extends JpaRepository<CommunityCounters, Long> {
+}
@@ -1,22 +1,38 @@
 package com.communityhub.repository;
 
 import com.communityhub.model.Community;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface CommunityRepository extends JpaRepository<Community, Long> {
     Optional<Community> findByJoinCode(String joinCode);
     
+    long countByIsPrivate(Boolean isPrivate);
+    
+    // A Slice fetches one extra row to tell whether another page exists, without a COUNT query
+    Slice<Community> findByIsPrivateFalseAndIsActiveTrue(Pageable pageable);
+    
+    // Rows are (id, name, description) of communities the public search may return
+    @Query("SELECT c.id, c.name, c.description FROM Community c WHERE c.isPrivate = false AND c.isActive = true")
+    List<Object[]> findSearchableCommunities();
+    
     @Modifying
     @Query(value = "DELETE FROM activities WHERE community_id = :communityId", nativeQuery = true)
     void deleteActivitiesByCommunityId(@Param("communityId") Long communityId);
     
+    @Modifying
+    @Query(value = "DELETE FROM dm_conversation_summaries WHERE community_id = :communityId", nativeQuery = true)
+    void deleteDmConversationSummariesByCommunityId(@Param("communityId") Long communityId);
+    
     @Modifying
     @Query(value = "DELETE FROM dm_messages WHERE community_id = :communityId", nativeQuery = true)
     void deleteDmMessagesByCommunityId(@Param("communityId") Long communityId);
@@ -0,0 +1,91 @@
+package com.communityhub.repository;
+
+import com.communityhub.model.DMConversationSummary;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface DMConversationSummaryRepository extends JpaRepository<DMConversationSummary, Long> {
+    
+    @Query("SELECT s FROM DMConversationSummary s JOIN FETCH s.otherUser " +
+           "WHERE s.owner.id = :ownerId AND s.community.id = :communityId " +
+           "ORDER BY s.lastActivityAt DESC, s.id DESC")
+    List<DMConversationSummary> findInbox(@Param("ownerId") Long ownerId,
+                                          @Param("communityId") Long communityId,
+                                          Pageable pageable);
+    
+    // Rows are (otherUserId, communityId, unreadCount, unreadVersion), read conversations included
+    @Query("SELECT s.otherUser.id, s.community.id, s.unreadCount, s.unreadVersion FROM DMConversationSummary s " +
+           "WHERE s.owner.id = :ownerId")
+    List<Object[]> findUnreadStateByOwner(@Param("ownerId") Long ownerId);
+    
+    /**
+     * Inserts or advances one side of a conversation. Messages applied out of order
+     * still count towards unread, but never replace a newer last message.
+     * Returns one row of (unreadCount, unreadVersion) as written.
+     */
+    @Query(value = "INSERT INTO dm_conversation_summaries AS s " +
+                   "(owner_id, other_user_id, community_id, last_message_id, last_message_preview, " +
+                   "last_sender_id, unread_count, unread_version, last_activity_at) " +
+                   "VALUES (:ownerId, :otherUserId, :communityId, :messageId, :preview, :senderId, :unreadDelta, 1, :activityAt) " +
+                   "ON CONFLICT (owner_id, other_user_id, community_id) DO UPDATE SET " +
+                   "unread_count = s.unread_count + EXCLUDED.unread_count, " +
+                   "unread_version = s.unread_version + 1, " +
+                   "last_message_id = CASE WHEN EXCLUDED.last_activity_at >= s.last_activity_at " +
+                   "THEN EXCLUDED.last_message_id ELSE s.last_message_id END, " +
+                   "last_message_preview = CASE WHEN EXCLUDED.last_activity_at >= s.last_activity_at " +
+                   "THEN EXCLUDED.last_message_preview ELSE s.last_message_preview END, " +
+                   "last_sender_id = CASE WHEN EXCLUDED.last_activity_at >= s.last_activity_at " +
+                   "THEN EXCLUDED.last_sender_id ELSE s.last_sender_id END, " +
+                   "last_activity_at = GREATEST(s.last_activity_at, EXCLUDED.last_activity_at) " +
+                   "RETURNING s.unread_count, s.unread_version",
+           nativeQuery = true)
+    List<Object[]> upsertMessage(@Param("ownerId") Long ownerId,
+                       @Param("otherUserId") Long otherUserId,
+                       @Param("communityId") Long communityId,
+                       @Param("messageId") Long messageId,
+                       @Param("preview") String preview,
+                       @Param("senderId") Long senderId,
+                       @Param("unreadDelta") int unreadDelta,
+                       @Param("activityAt") LocalDateTime activityAt);
+    
+    // Returns (unreadCount, unreadVersion) as written, or no row if the conversation has no summary
+    @Query(value = "UPDATE dm_conversation_summaries SET unread_count = GREATEST(unread_count - :count, 0), " +
+                   "unread_version = unread_version + 1 " +
+                   "WHERE owner_id = :ownerId AND other_user_id = :otherUserId AND community_id = :communityId " +
+                   "RETURNING unread_count, unread_version",
+           nativeQuery = true)
+    List<Object[]> decrementUnread(@Param("ownerId") Long ownerId,
+                        @Param("otherUserId") Long otherUserId,
+                        @Param("communityId") Long communityId,
+                        @Param("count") int count);
+    
+    /**
+     * One-off backfill from dm_messages for rows written before summaries existed.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO dm_conversation_summaries " +
+                   "(owner_id, other_user_id, community_id, last_message_id, last_message_preview, " +
+                   "last_sender_id, unread_count, last_activity_at) " +
+                   "SELECT owner_id, other_user_id, community_id, id, LEFT(content, 500), sender_id, unread, created_at " +
+                   "FROM (SELECT p.owner_id, p.other_user_id, m.community_id, m.id, m.content, m.sender_id, m.created_at, " +
+                   "ROW_NUMBER() OVER (PARTITION BY p.owner_id, p.other_user_id, m.community_id " +
+                   "ORDER BY m.created_at DESC, m.id DESC) AS rn, " +
+                   "COUNT(*) FILTER (WHERE m.receiver_id = p.owner_id AND m.is_read = false) " +
+                   "OVER (PARTITION BY p.owner_id, p.other_user_id, m.community_id) AS unread " +
+                   "FROM dm_messages m " +
+                   "CROSS JOIN LATERAL (VALUES (m.sender_id, m.receiver_id), (m.receiver_id, m.sender_id)) " +
+                   "AS p(owner_id, other_user_id) " +
+                   "WHERE m.is_deleted = false) ranked " +
+                   "WHERE rn = 1 " +
+                   "ON CONFLICT (owner_id, other_user_id, community_id) DO NOTHING",
+           nativeQuery = true)
+    int backfillFromMessages();
+}
@@ -1,39 +1,89 @@
 package com.communityhub.repository;
 
 import com.communityhub.model.DMMessage;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface DMMessageRepository extends JpaRepository<DMMessage, Long> {
     
-    @Query("SELECT m FROM DMMessage m WHERE " +
-           "((m.sender.id = :userId1 AND m.receiver.id = :userId2) OR " +
-           "(m.sender.id = :userId2 AND m.receiver.id = :userId1)) " +
-           "AND m.isDeleted = false ORDER BY m.createdAt DESC")
-    Page<DMMessage> findConversation(Long userId1, Long userId2, Pageable pageable);
-    
-    @Query("SELECT DISTINCT CASE " +
-           "WHEN m.sender.id = :userId THEN m.receiver " +
-           "ELSE m.sender END " +
-           "FROM DMMessage m " +
-           "WHERE (m.sender.id = :userId OR m.receiver.id = :userId) " +
-           "AND m.community.id = :communityId " +
-           "AND m.isDeleted = false")
-    List<Object> findConversationParticipants(Long userId, Long communityId);
-    
-    @Query("SELECT m FROM DMMessage m WHERE " +
-           "((m.sender.id = :userId1 AND m.receiver.id = :userId2) OR " +
-           "(m.sender.id = :userId2 AND m.receiver.id = :userId1)) " +
-           "AND m.isDeleted = false ORDER BY m.createdAt DESC")
-    List<DMMessage> findTopByUsersOrderByCreatedAtDesc(Long userId1, Long userId2);
+    // Keyset pagination over the canonical conversation key: callers pass
+    // PageRequest.of(0, size) so no offset or count query is issued
+    @Query("SELECT m FROM DMMessage m JOIN FETCH m.sender JOIN FETCH m.receiver " +
+           "WHERE m.lowUserId = :lowUserId AND m.highUserId = :highUserId " +
+           "AND m.isDeleted = false ORDER BY m.createdAt DESC, m.id DESC")
+    List<DMMessage> findByConversationKeyLatest(Long lowUserId, Long highUserId, Pageable pageable);
     
-    Long countByReceiverIdAndIsReadFalseAndIsDeletedFalse(Long receiverId);
+    @Query("SELECT m FROM DMMessage m JOIN FETCH m.sender JOIN FETCH m.receiver " +
+           "WHERE m.lowUserId = :lowUserId AND m.highUserId = :highUserId " +
+           "AND m.isDeleted = false " +
+           "AND (m.createdAt < :createdAt OR (m.createdAt = :createdAt AND m.id < :id)) " +
+           "ORDER BY m.createdAt DESC, m.id DESC")
+    List<DMMessage> findByConversationKeyBefore(Long lowUserId, Long highUserId, LocalDateTime createdAt, Long id, Pageable pageable);
+    
+    @Query("SELECT m FROM DMMessage m JOIN FETCH m.sender JOIN FETCH m.receiver " +
+           "WHERE m.lowUserId = :lowUserId AND m.highUserId = :highUserId " +
+           "AND m.isDeleted = false " +
+           "AND (m.createdAt > :createdAt OR (m.createdAt = :createdAt AND m.id > :id)) " +
+           "ORDER BY m.createdAt ASC, m.id ASC")
+    List<DMMessage> findByConversationKeyAfter(Long lowUserId, Long highUserId, LocalDateTime createdAt, Long id, Pageable pageable);
+    
+    default List<DMMessage> findConversationLatest(Long userId1, Long userId2, Pageable pageable) {
+        return findByConversationKeyLatest(Math.min(userId1, userId2), Math.max(userId1, userId2), pageable);
+    }
+    
+    default List<DMMessage> findConversationBefore(Long userId1, Long userId2, LocalDateTime createdAt, Long id, Pageable pageable) {
+        return findByConversationKeyBefore(Math.min(userId1, userId2), Math.max(userId1, userId2), createdAt, id, pageable);
+    }
+    
+    default List<DMMessage> findConversationAfter(Long userId1, Long userId2, LocalDateTime createdAt, Long id, Pageable pageable) {
+        return findByConversationKeyAfter(Math.min(userId1, userId2), Math.max(userId1, userId2), createdAt, id, pageable);
+    }
     
-    Long countBySenderIdAndReceiverIdAndIsReadFalseAndIsDeletedFalse(Long senderId, Long receiverId);
+    /**
+     * Marks every unread message the reader received in a conversation, up to and
+     * including the (createdAt, id) watermark, as read in a single statement. The
+     * watermark is compared directly, so it works before its own row is written.
+     */
+    @Modifying
+    @Query(value = "UPDATE dm_messages SET is_read = true, read_at = :readAt " +
+                   "WHERE low_user_id = :lowUserId AND high_user_id = :highUserId " +
+                   "AND receiver_id = :readerId AND community_id = :communityId " +
+                   "AND is_read = false AND is_deleted = false " +
+                   "AND (created_at, id) <= (:upToCreatedAt, :upToMessageId)",
+           nativeQuery = true)
+    int markReadUpTo(Long lowUserId, Long highUserId, Long readerId, Long communityId,
+                     LocalDateTime upToCreatedAt, Long upToMessageId, LocalDateTime readAt);
+    
+    /**
+     * Fills the conversation key on rows stored before the column existed.
+     * Runs in bounded batches so a large table is not locked in one statement.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE dm_messages SET low_user_id = LEAST(sender_id, receiver_id), " +
+                   "high_user_id = GREATEST(sender_id, receiver_id) " +
+                   "WHERE id IN (SELECT id FROM dm_messages WHERE low_user_id IS NULL LIMIT :batchSize)",
+           nativeQuery = true)
+    int backfillConversationKeys(int batchSize);
+    
+    /**
+     * Drops the sender/receiver conversation indexes superseded by
+     * idx_dm_message_conversation_key. Schema update never removes an index, so
+     * databases created before the key still carry them.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "DROP INDEX IF EXISTS idx_dm_message_conversation, idx_dm_message_conversation_cursor",
+           nativeQuery = true)
+    void dropSupersededConversationIndexes();
+    
+    Long countByReceiverIdAndIsReadFalseAndIsDeletedFalse(Long receiverId);
 }
@@ -6,11 +6,21 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
 @Repository
 public interface GroupChatRepository extends JpaRepository<GroupChat, Long> {
     List<GroupChat> findByCommunityIdAndIsActiveTrue(Long communityId);
     
+    long countByCommunityId(Long communityId);
+    
     @Query("SELECT g FROM GroupChat g JOIN g.members m WHERE m.id = :userId AND g.isActive = true")
     List<GroupChat> findByMemberId(Long userId);
+    
+    @Query("SELECT g.community.id FROM GroupChat g WHERE g.id = :groupChatId AND g.isActive = true")
+    Optional<Long> findActiveCommunityId(Long groupChatId);
+    
+    @Query("SELECT m.id FROM GroupChat g JOIN g.members m WHERE g.id = :groupChatId")
+    Set<Long> findMemberIds(Long groupChatId);
 }
@@ -11,4 +11,5 @@ import java.util.Optional;
 public interface JoinRequestRepository extends JpaRepository<JoinRequest, Long> {
     List<JoinRequest> findByCommunityIdAndStatus(Long communityId, JoinRequest.RequestStatus status);
     Optional<JoinRequest> findByUserIdAndCommunityIdAndStatus(Long userId, Long communityId, JoinRequest.RequestStatus status);
+    long countByCommunityIdAndStatus(Long communityId, JoinRequest.RequestStatus status);
 }
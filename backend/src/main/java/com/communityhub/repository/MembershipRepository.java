@@ -1,9 +1,13 @@
 package com.communityhub.repository;
 
 import com.communityhub.model.Membership;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,4 +17,67 @@ public interface MembershipRepository extends JpaRepository<Membership, Long> {
     List<Membership> findByCommunityId(Long communityId);
     Optional<Membership> findByUserIdAndCommunityId(Long userId, Long communityId);
     Boolean existsByUserIdAndCommunityId(Long userId, Long communityId);
+    long countByCommunityIdAndIsActiveTrue(Long communityId);
+    
+    // Rows are (role, count) over the community's active memberships
+    @Query("SELECT m.role, COUNT(m) FROM Membership m " +
+           "WHERE m.community.id = :communityId AND m.isActive = true GROUP BY m.role")
+    List<Object[]> countActiveByRole(@Param("communityId") Long communityId);
+    
+    @Query("SELECT m.community.id FROM Membership m WHERE m.user.id = :userId AND m.isActive = true")
+    List<Long> findActiveCommunityIdsByUserId(@Param("userId") Long userId);
+    
+    // Rows are (userId, communityId) for the users' active memberships
+    @Query("SELECT m.user.id, m.community.id FROM Membership m WHERE m.user.id IN :userIds AND m.isActive = true")
+    List<Object[]> findActiveCommunityIdsByUserIds(@Param("userIds") Collection<Long> userIds);
+    
+    // Rows are (id, name, description, isPrivate, joinCode, logoUrl, allowMemberToMemberDM, isActive,
+    // createdAt, role, memberCount) for every community the user belongs to
+    @Query("SELECT c.id, c.name, c.description, c.isPrivate, c.joinCode, c.logoUrl, c.allowMemberToMemberDM, " +
+           "c.isActive, c.createdAt, m.role, c.memberCount " +
+           "FROM Membership m JOIN m.community c WHERE m.user.id = :userId ORDER BY c.name")
+    List<Object[]> findCommunitySummariesByUserId(@Param("userId") Long userId);
+    
+    String MEMBER_PAGE_QUERY =
+            "SELECT m.id, u.id, u.firstName, u.lastName, u.email, m.role, u.department, u.phoneNumber, " +
+            "u.profileImageUrl, m.isActive, m.joinedAt, u.lastLoginAt " +
+            "FROM Membership m JOIN m.user u WHERE m.community.id = :communityId " +
+            "AND (:role IS NULL OR m.role = :role) " +
+            "AND (:department IS NULL OR u.department = :department) " +
+            "AND (:active IS NULL OR m.isActive = :active) " +
+            "AND (:namePrefix IS NULL OR LOWER(u.firstName) LIKE :namePrefix ESCAPE '\\' " +
+            "OR LOWER(u.lastName) LIKE :namePrefix ESCAPE '\\') ";
+    
+    // Walks idx_membership_community_id_id from the cursor, so no page sorts the whole community
+    String MEMBER_PAGE_ORDER = "ORDER BY m.id";
+    
+    // Rows are (membershipId, userId, firstName, lastName, email, role, department, phoneNumber,
+    // profileImageUrl, isActive, joinedAt, lastLoginAt), in membership id (join) order.
+    // Null filters match everything; namePrefix is a lower-case LIKE pattern.
+    @Query(MEMBER_PAGE_QUERY + MEMBER_PAGE_ORDER)
+    List<Object[]> findMemberPage(@Param("communityId") Long communityId,
+                                  @Param("role") Membership.RoleType role,
+                                  @Param("department") String department,
+                                  @Param("active") Boolean active,
+                                  @Param("namePrefix") String namePrefix,
+                                  Pageable pageable);
+    
+    // Same rows as findMemberPage, starting after the membership id cursor
+    @Query(MEMBER_PAGE_QUERY + "AND m.id > :afterId " + MEMBER_PAGE_ORDER)
+    List<Object[]> findMemberPageAfter(@Param("communityId") Long communityId,
+                                       @Param("role") Membership.RoleType role,
+                                       @Param("department") String department,
+                                       @Param("active") Boolean active,
+                                       @Param("namePrefix") String namePrefix,
+                                       @Param("afterId") Long afterId,
+                                       Pageable pageable);
+    
+    // One row of (activeMembers, administrators, moderators); administrators and moderators
+    // are active memberships only
+    @Query(value = "SELECT COUNT(*) FILTER (WHERE m.is_active), " +
+                   "COUNT(*) FILTER (WHERE m.is_active AND m.role = 'ADMINISTRATOR'), " +
+                   "COUNT(*) FILTER (WHERE m.is_active AND m.role = 'MODERATOR') " +
+                   "FROM memberships m WHERE m.community_id = :communityId",
+           nativeQuery = true)
+    List<Object[]> aggregateMemberCounts(@Param("communityId") Long communityId);
 }
@@ -0,0 +1,60 @@
+package com.communityhub.repository;
+
+import com.communityhub.model.MessageVolumeHourly;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface MessageVolumeHourlyRepository extends JpaRepository<MessageVolumeHourly, Long> {
+    
+    // Rows are (bucketStart, dmMessages, channelMessages, groupChatMessages); :unit is a date_trunc field
+    @Query(value = "SELECT date_trunc(:unit, v.bucket_start) AS bucket, SUM(v.dm_message_count), " +
+                   "SUM(v.channel_message_count), SUM(v.group_chat_message_count) " +
+                   "FROM message_volume_hourly v " +
+                   "WHERE v.community_id = :communityId AND v.bucket_start >= :from AND v.bucket_start < :to " +
+                   "GROUP BY bucket ORDER BY bucket",
+           nativeQuery = true)
+    List<Object[]> findVolume(@Param("communityId") Long communityId,
+                              @Param("from") LocalDateTime from,
+                              @Param("to") LocalDateTime to,
+                              @Param("unit") String unit);
+    
+    @Query("SELECT MIN(v.bucketStart) FROM MessageVolumeHourly v")
+    Optional<LocalDateTime> findOldestBucketStart();
+    
+    @Modifying
+    @Query(value = "DELETE FROM message_volume_hourly WHERE community_id = :communityId", nativeQuery = true)
+    void deleteByCommunityId(@Param("communityId") Long communityId);
+    
+    /**
+     * Backfill from the message tables for messages created before {@code before},
+     * i.e. those written before the rollup existed.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO message_volume_hourly " +
+                   "(community_id, bucket_start, dm_message_count, channel_message_count, group_chat_message_count) " +
+                   "SELECT community_id, bucket_start, SUM(dm), SUM(channel), SUM(grp) FROM (" +
+                   "SELECT community_id, date_trunc('hour', created_at) AS bucket_start, COUNT(*) AS dm, " +
+                   "0 AS channel, 0 AS grp FROM dm_messages WHERE created_at < :before GROUP BY 1, 2 " +
+                   "UNION ALL " +
+                   "SELECT c.community_id, date_trunc('hour', m.created_at), 0, COUNT(*), 0 " +
+                   "FROM channel_messages m JOIN channels c ON c.id = m.channel_id " +
+                   "WHERE m.created_at < :before GROUP BY 1, 2 " +
+                   "UNION ALL " +
+                   "SELECT g.community_id, date_trunc('hour', m.created_at), 0, 0, COUNT(*) " +
+                   "FROM group_chat_messages m JOIN group_chats g ON g.id = m.group_chat_id " +
+                   "WHERE m.created_at < :before GROUP BY 1, 2" +
+                   ") volume GROUP BY community_id, bucket_start " +
+                   "ON CONFLICT (community_id, bucket_start) DO NOTHING",
+           nativeQuery = true)
+    int backfillFromMessages(@Param("before") LocalDateTime before);
+}
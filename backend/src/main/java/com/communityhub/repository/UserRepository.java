@@ -2,8 +2,14 @@ package com.communityhub.repository;
 
 import com.communityhub.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -11,4 +17,25 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     Boolean existsByEmail(String email);
     Optional<User> findByVerificationToken(String token);
+    
+    // Rows are (userId, revokedAt) for users revoked after :since
+    @Query("SELECT u.id, u.revokedAt FROM User u WHERE u.revokedAt > :since")
+    List<Object[]> findRevokedSince(@Param("since") LocalDateTime since);
+    
+    // Users deactivated without a revocation time are treated as revoked now
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.revokedAt = :now WHERE u.isActive = false AND u.revokedAt IS NULL")
+    int stampUnrecordedRevocations(@Param("now") LocalDateTime now);
+    
+    // Rows are (userId, lastLoginAt, communityId) for users who logged in after :since, one per active
+    // membership; communityId is null for users without one
+    @Query("SELECT u.id, u.lastLoginAt, m.community.id FROM User u " +
+           "LEFT JOIN Membership m ON m.user = u AND m.isActive = true WHERE u.lastLoginAt > :since")
+    List<Object[]> findRecentLoginsWithCommunities(@Param("since") LocalDateTime since);
+    
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.password = :password WHERE u.email = :email")
+    int updatePasswordByEmail(@Param("email") String email, @Param("password") String password);
 }
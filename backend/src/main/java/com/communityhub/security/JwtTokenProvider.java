@@ -1,32 +1,89 @@
 package com.communityhub.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.function.Function;
 
+/**
+ * Issues and verifies JWTs. The signing key and parser are built once, and
+ * verified claims are cached by SHA-256 digest of the token until the token's
+ * {@code exp}, so repeated requests with the same token skip signature checks.
+ * The cache is a size-bounded LRU map; evicting the least recently used token
+ * is O(1), so a full cache costs no more per request than an empty one.
+ */
 @Component
 public class JwtTokenProvider {
     
+    public static final String USER_ID_CLAIM = "uid";
+    public static final String ACTIVE_CLAIM = "active";
+    public static final String NAME_CLAIM = "name";
+    
     @Value("${jwt.secret}")
     private String secret;
     
     @Value("${jwt.expiration}")
     private long jwtExpiration;
     
+    @Value("${jwt.claims-cache-size:10000}")
+    private int claimsCacheSize;
+    
+    private SecretKey signInKey;
+    private JwtParser parser;
+    // Access-ordered, guarded by its own monitor; created in init() once the size is known
+    private Map<String, Claims> verifiedClaims;
+    
+    @PostConstruct
+    void init() {
+        this.signInKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret));
+        this.parser = Jwts.parser().verifyWith(signInKey).build();
+        this.verifiedClaims = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Claims> eldest) {
+                return size() > claimsCacheSize;
+            }
+        };
+    }
+    
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
     }
     
+    /**
+     * Returns the principal carried in the token's claims, or null for tokens
+     * issued before the user id was embedded.
+     */
+    public UserPrincipal extractPrincipal(String token) {
+        final Claims claims = extractAllClaims(token);
+        Number userId = claims.get(USER_ID_CLAIM, Number.class);
+        if (userId == null) {
+            return null;
+        }
+        Boolean active = claims.get(ACTIVE_CLAIM, Boolean.class);
+        return new UserPrincipal(userId.longValue(), claims.getSubject(), claims.get(NAME_CLAIM, String.class),
+                !Boolean.FALSE.equals(active));
+    }
+    
+    public Date extractIssuedAt(String token) {
+        return extractClaim(token, Claims::getIssuedAt);
+    }
+    
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
         final Claims claims = extractAllClaims(token);
         return claimsResolver.apply(claims);
@@ -36,6 +93,14 @@ public class JwtTokenProvider {
         return generateToken(new HashMap<>(), userDetails);
     }
     
+    public String generateToken(UserDetails userDetails, Long userId, String fullName, boolean active) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(USER_ID_CLAIM, userId);
+        claims.put(NAME_CLAIM, fullName);
+        claims.put(ACTIVE_CLAIM, active);
+        return generateToken(claims, userDetails);
+    }
+    
     public String generateToken(Map<String, Object> extraClaims, UserDetails userDetails) {
         return buildToken(extraClaims, userDetails, jwtExpiration);
     }
@@ -51,34 +116,44 @@ public class JwtTokenProvider {
                 .subject(userDetails.getUsername())
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSignInKey())
+                .signWith(signInKey)
                 .compact();
     }
     
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
-    }
-    
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
-    
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+        final Claims claims = extractAllClaims(token);
+        return (claims.getSubject().equals(userDetails.getUsername())) && !claims.getExpiration().before(new Date());
     }
     
     private Claims extractAllClaims(String token) {
-        return Jwts
-                .parser()
-                .verifyWith(getSignInKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        String digest = digest(token);
+        synchronized (verifiedClaims) {
+            Claims cached = verifiedClaims.get(digest);
+            if (cached != null) {
+                if (cached.getExpiration().after(new Date())) {
+                    return cached;
+                }
+                // Expired: drop it and let the parser raise the usual ExpiredJwtException
+                verifiedClaims.remove(digest);
+            }
+        }
+        
+        // Verified outside the lock; expired tokens age out as they become least recently used
+        Claims claims = parser.parseSignedClaims(token).getPayload();
+        if (claims.getExpiration() != null) {
+            synchronized (verifiedClaims) {
+                verifiedClaims.put(digest, claims);
+            }
+        }
+        return claims;
     }
     
-    private SecretKey getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secret);
-        return Keys.hmacShaKeyFor(keyBytes);
+    private static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
 }
@@ -39,6 +39,13 @@ public class SecurityConfig {
                                 "/api/public/**",
                                 "/error"
                         ).permitAll()
+                        // Internal metrics; the public statistics endpoints stay open to every user
+                        .requestMatchers(
+                                "/api/statistics/websocket/**",
+                                "/api/statistics/authorization-cache",
+                                "/api/statistics/password-hashing",
+                                "/api/statistics/search-index"
+                        ).hasAuthority(TokenAuthenticationService.ADMIN_AUTHORITY)
                         .anyRequest().authenticated()
                 )
                 .sessionManagement(session -> session
@@ -0,0 +1,57 @@
+package com.communityhub.security;
+
+import com.communityhub.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Turns a bearer token into an authentication for HTTP requests and STOMP
+ * CONNECT frames. The principal comes from the verified claims, so the common
+ * path does not touch the database.
+ */
+@Component
+@RequiredArgsConstructor
+public class TokenAuthenticationService {
+    
+    public static final String ADMIN_AUTHORITY = "ADMIN";
+    
+    private static final List<GrantedAuthority> USER_AUTHORITIES = List.of(new SimpleGrantedAuthority("USER"));
+    private static final List<GrantedAuthority> ADMIN_AUTHORITIES =
+            List.of(new SimpleGrantedAuthority("USER"), new SimpleGrantedAuthority(ADMIN_AUTHORITY));
+    
+    private final JwtTokenProvider jwtTokenProvider;
+    private final UserRevocationService userRevocationService;
+    private final UserRepository userRepository;
+    
+    // Operators allowed to read the internal metrics endpoints, see SecurityConfig
+    @Value("${app.security.admin-emails:}")
+    private Set<String> adminEmails;
+    
+    /**
+     * Returns the authentication for the token, or null when its user is
+     * inactive or revoked. Invalid or expired tokens throw from the parser.
+     */
+    public UsernamePasswordAuthenticationToken authenticate(String token) {
+        UserPrincipal principal = jwtTokenProvider.extractPrincipal(token);
+        if (principal == null) {
+            // Token issued before the user id was embedded; resolve it once per request until it expires
+            principal = userRepository.findByEmail(jwtTokenProvider.extractUsername(token))
+                    .map(UserPrincipal::from)
+                    .orElse(null);
+        }
+        
+        if (principal == null || !principal.isActive()
+                || userRevocationService.isRevoked(principal.getId(), jwtTokenProvider.extractIssuedAt(token))) {
+            return null;
+        }
+        return new UsernamePasswordAuthenticationToken(principal, null,
+                adminEmails.contains(principal.getEmail()) ? ADMIN_AUTHORITIES : USER_AUTHORITIES);
+    }
+}
@@ -0,0 +1,31 @@
+package com.communityhub.security;
+
+import com.communityhub.model.User;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.security.core.AuthenticatedPrincipal;
+
+/**
+ * Authenticated user as carried in the signed JWT claims. {@link #getName()}
+ * returns the email so existing {@code authentication.getName()} callers and
+ * user destinations keep working.
+ */
+@Getter
+@AllArgsConstructor
+public class UserPrincipal implements AuthenticatedPrincipal {
+    
+    private final Long id;
+    private final String email;
+    // Null for tokens issued before the name was embedded
+    private final String fullName;
+    private final boolean active;
+    
+    public static UserPrincipal from(User user) {
+        return new UserPrincipal(user.getId(), user.getEmail(), user.getFullName(), Boolean.TRUE.equals(user.getIsActive()));
+    }
+    
+    @Override
+    public String getName() {
+        return email;
+    }
+}
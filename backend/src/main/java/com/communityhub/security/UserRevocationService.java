@@ -0,0 +1,90 @@
+package com.communityhub.security;
+
+import com.communityhub.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Revocations of users whose tokens must be refused before they expire.
+ * Users are deactivated directly in the database by setting
+ * {@code is_active = false} and {@code revoked_at = now()}; tokens issued up to
+ * {@code revoked_at} are refused, so a reactivated user can sign in again.
+ *
+ * <p>Each poll only reads the rows revoked since the previous one, and an entry
+ * is dropped once every token issued before it has expired, so the cost does
+ * not grow with the number of deactivated accounts. A deactivation takes effect
+ * within {@code app.security.revocation-refresh-ms}. Users deactivated without
+ * {@code revoked_at} are stamped at startup.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserRevocationService {
+    
+    private final UserRepository userRepository;
+    
+    @Value("${jwt.expiration}")
+    private long jwtExpiration;
+    
+    @Value("${app.security.revocation-refresh-ms:30000}")
+    private long refreshMs;
+    
+    // userId -> revocation time
+    private final ConcurrentHashMap<Long, LocalDateTime> revokedAt = new ConcurrentHashMap<>();
+    // End of the last poll; guarded by the instance lock
+    private LocalDateTime polledUpTo;
+    
+    @PostConstruct
+    synchronized void load() {
+        LocalDateTime now = LocalDateTime.now();
+        userRepository.stampUnrecordedRevocations(now);
+        poll(oldestLiveIssue(now), now);
+    }
+    
+    @Scheduled(fixedDelayString = "${app.security.revocation-refresh-ms:30000}",
+               initialDelayString = "${app.security.revocation-refresh-ms:30000}")
+    public synchronized void refresh() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            // Overlap the previous poll so a revocation committed after its revoked_at was read is not missed
+            poll(polledUpTo.minus(refreshMs, ChronoUnit.MILLIS), now);
+            LocalDateTime expired = oldestLiveIssue(now);
+            revokedAt.values().removeIf(time -> time.isBefore(expired));
+        } catch (RuntimeException e) {
+            // Keep the current entries rather than letting deactivated users back in
+            System.err.println("Failed to refresh revoked users: " + e.getMessage());
+        }
+    }
+    
+    /** Whether a token of the user issued at the given time has been revoked. */
+    public boolean isRevoked(Long userId, Date issuedAt) {
+        LocalDateTime revoked = revokedAt.get(userId);
+        if (revoked == null) {
+            return false;
+        }
+        // Tokens without iat cannot be placed after the revocation
+        return issuedAt == null
+                || !LocalDateTime.ofInstant(issuedAt.toInstant(), ZoneId.systemDefault()).isAfter(revoked);
+    }
+    
+    private void poll(LocalDateTime since, LocalDateTime now) {
+        // Rows are (userId, revokedAt)
+        for (Object[] row : userRepository.findRevokedSince(since)) {
+            revokedAt.merge((Long) row[0], (LocalDateTime) row[1], (a, b) -> a.isAfter(b) ? a : b);
+        }
+        polledUpTo = now;
+    }
+    
+    // Tokens issued before this have expired
+    private LocalDateTime oldestLiveIssue(LocalDateTime now) {
+        return now.minus(jwtExpiration, ChronoUnit.MILLIS);
+    }
+}
@@ -29,6 +29,8 @@ public class AuthService {
     private final JwtTokenProvider jwtTokenProvider;
     private final AuthenticationManager authenticationManager;
     private final MembershipService membershipService;
+    private final LastSeenRecorder lastSeenRecorder;
+    private final StatisticsCounterService statisticsCounterService;
     
     @Transactional
     public AuthResponse register(RegisterRequest request) {
@@ -49,6 +51,7 @@ public class AuthService {
         user.setEmailVerified(true);
         
         User savedUser = userRepository.save(user);
+        statisticsCounterService.incrementGlobal(StatisticsCounterService.Counter.USERS, 1);
         
         // Handle invite token if present
         if (request.getInviteToken() != null && !request.getInviteToken().isEmpty()) {
@@ -80,7 +83,8 @@ public class AuthService {
                 .authorities("USER")
                 .build();
         
-        String token = jwtTokenProvider.generateToken(userDetails);
+        String token = jwtTokenProvider.generateToken(userDetails, savedUser.getId(), savedUser.getFullName(),
+                Boolean.TRUE.equals(savedUser.getIsActive()));
         
         return AuthResponse.builder()
                 .token(token)
@@ -105,9 +109,8 @@ public class AuthService {
         User user = userRepository.findByEmail(request.getEmail())
                 .orElseThrow(() -> new RuntimeException("User not found"));
         
-        // Update last login
-        user.setLastLoginAt(LocalDateTime.now());
-        userRepository.save(user);
+        // Coalesced with other sign-ins and written in the next batch
+        lastSeenRecorder.record(user.getId());
         
         var userDetails = org.springframework.security.core.userdetails.User
                 .withUsername(user.getEmail())
@@ -115,7 +118,8 @@ public class AuthService {
                 .authorities("USER")
                 .build();
         
-        String token = jwtTokenProvider.generateToken(userDetails);
+        String token = jwtTokenProvider.generateToken(userDetails, user.getId(), user.getFullName(),
+                Boolean.TRUE.equals(user.getIsActive()));
         
         return AuthResponse.builder()
                 .token(token)
@@ -0,0 +1,151 @@
+package com.communityhub.service;
+
+import com.communityhub.dto.AuthorizationCacheStatsDTO;
+import com.communityhub.model.Membership;
+import com.communityhub.model.ModeratorPermission;
+import com.communityhub.repository.MembershipRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cached role and moderator permission mask per (user, community), backing the
+ * membership checks done on almost every request. Entries are evicted by the
+ * services that change memberships, roles or permissions; absent memberships
+ * are cached too so non-members do not hit the database repeatedly.
+ */
+@Service
+@RequiredArgsConstructor
+public class AuthorizationCache {
+    
+    public static final int CAN_APPROVE_JOIN_REQUESTS = 1;
+    public static final int CAN_ADD_MEMBERS = 1 << 1;
+    public static final int CAN_REMOVE_MEMBERS = 1 << 2;
+    public static final int CAN_MANAGE_CHANNELS = 1 << 3;
+    public static final int CAN_DELETE_MESSAGES = 1 << 4;
+    public static final int CAN_CREATE_ANNOUNCEMENTS = 1 << 5;
+    public static final int CAN_MANAGE_GROUP_CHATS = 1 << 6;
+    public static final int CAN_VIEW_AUDIT_LOGS = 1 << 7;
+    
+    private static final Decision NOT_A_MEMBER = new Decision(null, 0);
+    
+    private final MembershipRepository membershipRepository;
+    
+    @Value("${app.authorization.cache-size:50000}")
+    private int maxEntries;
+    
+    private final ConcurrentHashMap<Key, Decision> decisions = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    // Bumped on every invalidation so a load that raced with one is not cached
+    private final AtomicLong generation = new AtomicLong();
+    
+    private record Key(Long userId, Long communityId) {
+    }
+    
+    /**
+     * Role of the user in the community ({@code null} when not a member) and the
+     * moderator permission bits.
+     */
+    public record Decision(Membership.RoleType role, int permissionMask) {
+        
+        public boolean isMember() {
+            return role != null;
+        }
+        
+        public boolean hasPermission(int permission) {
+            return role == Membership.RoleType.ADMINISTRATOR
+                    || (role == Membership.RoleType.MODERATOR && (permissionMask & permission) == permission);
+        }
+    }
+    
+    public Decision get(Long userId, Long communityId) {
+        Key key = new Key(userId, communityId);
+        Decision cached = decisions.get(key);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        
+        misses.increment();
+        long loadedAt = generation.get();
+        Decision loaded = membershipRepository.findByUserIdAndCommunityId(userId, communityId)
+                .map(m -> new Decision(m.getRole(), maskOf(m.getModeratorPermission())))
+                .orElse(NOT_A_MEMBER);
+        if (decisions.size() >= maxEntries) {
+            makeRoom();
+        }
+        if (generation.get() == loadedAt) {
+            decisions.putIfAbsent(key, loaded);
+        }
+        return loaded;
+    }
+    
+    /**
+     * Evicts the entry now and again after the surrounding transaction commits,
+     * so a concurrent read cannot re-cache the pre-commit state.
+     */
+    public void invalidate(Long userId, Long communityId) {
+        Key key = new Key(userId, communityId);
+        TransactionCallbacks.runNowAndAfterCommit(() -> {
+            generation.incrementAndGet();
+            if (decisions.remove(key) != null) {
+                evictions.increment();
+            }
+        });
+    }
+    
+    public void evictCommunity(Long communityId) {
+        TransactionCallbacks.runNowAndAfterCommit(() -> {
+            generation.incrementAndGet();
+            decisions.keySet().removeIf(key -> key.communityId().equals(communityId));
+        });
+    }
+    
+    public AuthorizationCacheStatsDTO getStats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long lookups = hitCount + missCount;
+        return AuthorizationCacheStatsDTO.builder()
+                .size(decisions.size())
+                .hits(hitCount)
+                .misses(missCount)
+                .evictions(evictions.sum())
+                .hitRate(lookups > 0 ? (double) hitCount / lookups : 0.0)
+                .build();
+    }
+    
+    private static int maskOf(ModeratorPermission permissions) {
+        if (permissions == null) {
+            return 0;
+        }
+        return bit(permissions.getCanApproveJoinRequests(), CAN_APPROVE_JOIN_REQUESTS)
+                | bit(permissions.getCanAddMembers(), CAN_ADD_MEMBERS)
+                | bit(permissions.getCanRemoveMembers(), CAN_REMOVE_MEMBERS)
+                | bit(permissions.getCanManageChannels(), CAN_MANAGE_CHANNELS)
+                | bit(permissions.getCanDeleteMessages(), CAN_DELETE_MESSAGES)
+                | bit(permissions.getCanCreateAnnouncements(), CAN_CREATE_ANNOUNCEMENTS)
+                | bit(permissions.getCanManageGroupChats(), CAN_MANAGE_GROUP_CHATS)
+                | bit(permissions.getCanViewAuditLogs(), CAN_VIEW_AUDIT_LOGS);
+    }
+    
+    private static int bit(Boolean granted, int permission) {
+        return Boolean.TRUE.equals(granted) ? permission : 0;
+    }
+    
+    // Cheap bound: drop arbitrary entries; they reload on the next check
+    private void makeRoom() {
+        Iterator<Key> keys = decisions.keySet().iterator();
+        while (decisions.size() >= maxEntries && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+            evictions.increment();
+        }
+    }
+}
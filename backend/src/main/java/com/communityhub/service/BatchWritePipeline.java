@@ -0,0 +1,257 @@
+package com.communityhub.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind pipeline for message rows. Ids are reserved in blocks from the
+ * table's identity sequence so callers can deliver immediately. A single writer
+ * thread groups pending rows into batches flushed by size or by time.
+ *
+ * <p>Each pipeline reads its settings from {@code app.messaging.<name>.*}.
+ * {@code durability} can be one of:
+ * <ul>
+ *   <li>{@code SYNC} - {@link #enqueue} waits until the batch holding the row
+ *       has committed (group commit).</li>
+ *   <li>{@code ASYNC} - {@link #enqueue} returns once the row is queued; a crash
+ *       can lose up to one flush interval of rows.</li>
+ * </ul>
+ * Rows that fail both in their batch and on their own are passed to
+ * {@link #onWriteFailed}, since in {@code ASYNC} mode nobody waits on them.
+ * Once the pipeline is stopped, new rows and barriers are rejected.
+ */
+public abstract class BatchWritePipeline<T> {
+    
+    public enum Durability {
+        SYNC,
+        ASYNC
+    }
+    
+    private static final String ALLOCATE_IDS_SQL =
+            "SELECT nextval(pg_get_serial_sequence(?, 'id')) FROM generate_series(1, ?)";
+    
+    protected final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final String name;
+    private final String table;
+    
+    private final Durability durability;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final int idBlockSize;
+    
+    private final BlockingQueue<Pending<T>> queue;
+    private final ArrayDeque<Long> reservedIds = new ArrayDeque<>();
+    private Thread writer;
+    // Runs work chained after the queued rows, so neither callers nor the writer block on it
+    private ExecutorService followUps;
+    private volatile boolean running;
+    
+    // A null row is a barrier: it completes once every row queued ahead of it has been flushed
+    private record Pending<T>(T row, CompletableFuture<Void> committed) {
+    }
+    
+    protected BatchWritePipeline(JdbcTemplate jdbcTemplate,
+                                 TransactionTemplate transactionTemplate,
+                                 Environment environment,
+                                 String name,
+                                 String table) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.name = name;
+        this.table = table;
+        
+        String prefix = "app.messaging." + name + ".";
+        this.durability = environment.getProperty(prefix + "durability", Durability.class, Durability.ASYNC);
+        this.batchSize = environment.getProperty(prefix + "batch-size", Integer.class, 200);
+        this.flushIntervalMs = environment.getProperty(prefix + "flush-interval-ms", Long.class, 50L);
+        this.idBlockSize = environment.getProperty(prefix + "id-block-size", Integer.class, 100);
+        this.queue = new ArrayBlockingQueue<>(environment.getProperty(prefix + "queue-capacity", Integer.class, 10000));
+    }
+    
+    /**
+     * Called on the writer thread for a row that could not be written, after it
+     * has already been delivered in {@code ASYNC} mode.
+     */
+    protected void onWriteFailed(T row, RuntimeException error) {
+    }
+    
+    /**
+     * Inserts the batch. Runs inside the flush transaction, so any follow-up
+     * bookkeeping done here commits or rolls back together with the rows.
+     */
+    protected abstract void write(List<T> batch);
+    
+    @PostConstruct
+    void start() {
+        running = true;
+        writer = new Thread(this::runWriter, name + "-persistence-writer");
+        writer.setDaemon(true);
+        writer.start();
+        followUps = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, name + "-persistence-follow-up");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        writer.interrupt();
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+        // Rows that slipped in while the writer was exiting would otherwise never complete
+        List<Pending<T>> stranded = new ArrayList<>();
+        queue.drainTo(stranded);
+        stranded.forEach(BatchWritePipeline::rejectStopped);
+        followUps.shutdown();
+        followUps.awaitTermination(10, TimeUnit.SECONDS);
+    }
+    
+    protected synchronized Long nextId() {
+        if (reservedIds.isEmpty()) {
+            reservedIds.addAll(jdbcTemplate.queryForList(ALLOCATE_IDS_SQL, Long.class, table, idBlockSize));
+        }
+        return reservedIds.poll();
+    }
+    
+    /**
+     * Queues a row whose id has already been assigned. Blocks only when the
+     * queue is full, or until commit in {@code SYNC} mode.
+     */
+    protected T enqueue(T row) {
+        Pending<T> pending = new Pending<>(row, new CompletableFuture<>());
+        put(pending);
+        
+        if (durability == Durability.SYNC) {
+            pending.committed().join();
+        }
+        return row;
+    }
+    
+    /**
+     * Completes once every row queued before this call has been flushed, so work
+     * that reads those rows can run after them even in {@code ASYNC} mode.
+     */
+    public CompletableFuture<Void> afterQueuedWrites() {
+        Pending<T> barrier = new Pending<>(null, new CompletableFuture<>());
+        put(barrier);
+        return barrier.committed();
+    }
+    
+    /**
+     * Runs the task on the pipeline's follow-up thread once every row queued
+     * before this call has been flushed. Tasks run one at a time in submission
+     * order; the returned future fails if the rows did or the pipeline stopped.
+     */
+    public CompletableFuture<Void> afterQueuedWrites(Runnable task) {
+        return afterQueuedWrites().thenRunAsync(task, followUps);
+    }
+    
+    private void put(Pending<T> pending) {
+        if (!running) {
+            throw new IllegalStateException("The " + name + " message pipeline is stopped");
+        }
+        try {
+            queue.put(pending);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while queueing message", e);
+        }
+        // Stopped while queueing: if the writer has not taken the row, nobody will
+        if (!running && queue.remove(pending)) {
+            rejectStopped(pending);
+            throw new IllegalStateException("The " + name + " message pipeline is stopped");
+        }
+    }
+    
+    private static void rejectStopped(Pending<?> pending) {
+        pending.committed().completeExceptionally(new IllegalStateException("Message pipeline is stopped"));
+    }
+    
+    private void runWriter() {
+        List<Pending<T>> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending<T> first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                
+                // Fill the batch until it is full or the flush interval since the first row elapses
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    Pending<T> next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                // Shutdown: fall through and flush whatever is still queued
+                queue.drainTo(batch);
+            }
+            
+            if (!batch.isEmpty()) {
+                flush(batch);
+                batch.clear();
+            }
+        }
+    }
+    
+    private void flush(List<Pending<T>> batch) {
+        try {
+            writeInTransaction(batch);
+            batch.forEach(p -> p.committed().complete(null));
+        } catch (RuntimeException e) {
+            // Isolate the offending rows so one bad message does not drop the whole batch
+            for (Pending<T> pending : batch) {
+                try {
+                    writeInTransaction(List.of(pending));
+                    pending.committed().complete(null);
+                } catch (RuntimeException rowError) {
+                    System.err.println("Failed to persist " + name + " message: " + rowError.getMessage());
+                    pending.committed().completeExceptionally(rowError);
+                    if (pending.row() != null) {
+                        reportFailure(pending.row(), rowError);
+                    }
+                }
+            }
+        }
+    }
+    
+    private void reportFailure(T row, RuntimeException error) {
+        try {
+            onWriteFailed(row, error);
+        } catch (RuntimeException e) {
+            System.err.println("Failed to report " + name + " message failure: " + e.getMessage());
+        }
+    }
+    
+    private void writeInTransaction(List<Pending<T>> batch) {
+        List<T> rows = batch.stream().map(Pending::row).filter(Objects::nonNull).toList();
+        if (!rows.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> write(rows));
+        }
+    }
+}
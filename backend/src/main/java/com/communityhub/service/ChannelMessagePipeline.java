@@ -0,0 +1,110 @@
+package com.communityhub.service;
+
+import com.communityhub.dto.MessageFailureDTO;
+import com.communityhub.model.ChannelMessage;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Batched persistence for channel messages; configured under {@code app.messaging.channel}.
+ */
+@Service
+public class ChannelMessagePipeline extends BatchWritePipeline<ChannelMessage> {
+    
+    private static final String INSERT_SQL =
+            "INSERT INTO channel_messages (id, channel_id, user_id, content, attachment_url, attachment_name, " +
+            "parent_message_id, is_deleted, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    
+    private final SimpMessagingTemplate messagingTemplate;
+    private final StatisticsCounterService statisticsCounterService;
+    private final MessageVolumeService messageVolumeService;
+    
+    public ChannelMessagePipeline(JdbcTemplate jdbcTemplate,
+                                  TransactionTemplate transactionTemplate,
+                                  Environment environment,
+                                  SimpMessagingTemplate messagingTemplate,
+                                  StatisticsCounterService statisticsCounterService,
+                                  MessageVolumeService messageVolumeService) {
+        super(jdbcTemplate, transactionTemplate, environment, "channel", "channel_messages");
+        this.messagingTemplate = messagingTemplate;
+        this.statisticsCounterService = statisticsCounterService;
+        this.messageVolumeService = messageVolumeService;
+    }
+    
+    // The send path sets the community id from its room lookup
+    public ChannelMessage persist(ChannelMessage message) {
+        Objects.requireNonNull(message.getCommunityId(), "communityId");
+        message.setId(nextId());
+        message.setCreatedAt(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
+        return enqueue(message);
+    }
+    
+    @Override
+    protected void write(List<ChannelMessage> messages) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ChannelMessage m = messages.get(i);
+                ps.setLong(1, m.getId());
+                ps.setLong(2, m.getChannel().getId());
+                ps.setLong(3, m.getSender().getId());
+                ps.setString(4, m.getContent());
+                ps.setString(5, m.getAttachmentUrl());
+                ps.setString(6, m.getAttachmentName());
+                if (m.getParentMessage() != null) {
+                    ps.setLong(7, m.getParentMessage().getId());
+                } else {
+                    ps.setNull(7, Types.BIGINT);
+                }
+                ps.setBoolean(8, m.getIsDeleted());
+                ps.setTimestamp(9, Timestamp.valueOf(m.getCreatedAt()));
+            }
+            
+            @Override
+            public int getBatchSize() {
+                return messages.size();
+            }
+        });
+        
+        Map<Long, Long> perCommunity = new HashMap<>();
+        Map<MessageVolumeService.Bucket, Long> perHour = new HashMap<>();
+        for (ChannelMessage message : messages) {
+            perCommunity.merge(message.getCommunityId(), 1L, Long::sum);
+            perHour.merge(MessageVolumeService.Bucket.of(message.getCommunityId(), message.getCreatedAt()),
+                    1L, Long::sum);
+        }
+        statisticsCounterService.incrementAll(StatisticsCounterService.Counter.CHANNEL_MESSAGES, perCommunity);
+        messageVolumeService.record(MessageVolumeService.Kind.CHANNEL, perHour);
+    }
+    
+    @Override
+    protected void onWriteFailed(ChannelMessage message, RuntimeException error) {
+        messagingTemplate.convertAndSendToUser(
+                message.getSenderEmail(),
+                "/queue/message-failures",
+                MessageFailureDTO.builder()
+                        .messageId(message.getId())
+                        .roomType("CHANNEL")
+                        .roomId(message.getChannel().getId())
+                        .communityId(message.getCommunityId())
+                        .reason("Message could not be saved")
+                        .build()
+        );
+    }
+}
@@ -0,0 +1,104 @@
+package com.communityhub.service;
+
+import com.communityhub.repository.ChannelRepository;
+import com.communityhub.repository.GroupChatRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Cached lookups for the channel and group chat send paths: the owning community
+ * of a channel, and the community plus member ids of a group chat. Keeps
+ * {@code GroupChat.members} from being loaded on every message.
+ *
+ * <p>The write paths evict what they change, like {@link AuthorizationCache}:
+ * community deletion drops the community's rooms, and membership changes drop
+ * the cached groups of that community that list the user. Channels, groups
+ * and group member lists have no edit path of their own here, so entries are
+ * also re-read once they are older than the configured TTL, which bounds how
+ * long a change made outside the application goes unnoticed. Whether a sender
+ * still belongs to the community is checked through {@link AuthorizationCache}.
+ */
+@Service
+@RequiredArgsConstructor
+public class ChatRoomDirectory {
+    
+    private final ChannelRepository channelRepository;
+    private final GroupChatRepository groupChatRepository;
+    
+    @Value("${app.websocket.room-cache-ttl-ms:30000}")
+    private long ttlMs;
+    
+    private final ConcurrentHashMap<Long, Entry<Long>> channelCommunities = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Entry<GroupRoom>> groupRooms = new ConcurrentHashMap<>();
+    // Bumped on every eviction so a load that raced with one is not cached
+    private final AtomicLong generation = new AtomicLong();
+    
+    public record GroupRoom(Long communityId, Set<Long> memberIds) {
+    }
+    
+    private record Entry<T>(T value, long loadedAtNanos) {
+    }
+    
+    public Optional<Long> getChannelCommunityId(Long channelId) {
+        return Optional.ofNullable(lookup(channelCommunities, channelId,
+                () -> channelRepository.findActiveCommunityId(channelId).orElse(null)));
+    }
+    
+    public Optional<GroupRoom> getGroupRoom(Long groupChatId) {
+        return Optional.ofNullable(lookup(groupRooms, groupChatId,
+                () -> groupChatRepository.findActiveCommunityId(groupChatId)
+                        .map(communityId -> new GroupRoom(communityId,
+                                Set.copyOf(groupChatRepository.findMemberIds(groupChatId))))
+                        .orElse(null)));
+    }
+    
+    /**
+     * Evicts the community's rooms now and again after the surrounding
+     * transaction commits, so a concurrent lookup cannot re-cache them.
+     */
+    public void evictCommunity(Long communityId) {
+        TransactionCallbacks.runNowAndAfterCommit(() -> {
+            generation.incrementAndGet();
+            channelCommunities.values().removeIf(entry -> communityId.equals(entry.value()));
+            groupRooms.values().removeIf(entry -> entry.value().communityId().equals(communityId));
+        });
+    }
+    
+    /**
+     * Evicts the community's cached groups that list the user, now and again
+     * after the surrounding transaction commits.
+     */
+    public void evictMember(Long userId, Long communityId) {
+        TransactionCallbacks.runNowAndAfterCommit(() -> {
+            generation.incrementAndGet();
+            groupRooms.values().removeIf(entry -> entry.value().communityId().equals(communityId)
+                    && entry.value().memberIds().contains(userId));
+        });
+    }
+    
+    // Missing rooms are not cached, matching the previous behaviour for unknown ids
+    private <T> T lookup(ConcurrentHashMap<Long, Entry<T>> cache, Long id, Supplier<T> loader) {
+        long now = System.nanoTime();
+        Entry<T> cached = cache.get(id);
+        if (cached != null && now - cached.loadedAtNanos() < TimeUnit.MILLISECONDS.toNanos(ttlMs)) {
+            return cached.value();
+        }
+        
+        long loadedAt = generation.get();
+        T loaded = loader.get();
+        if (loaded == null) {
+            cache.remove(id);
+        } else if (generation.get() == loadedAt) {
+            cache.put(id, new Entry<>(loaded, now));
+        }
+        return loaded;
+    }
+}
@@ -0,0 +1,306 @@
+package com.communityhub.service;
+
+import com.communityhub.dto.CommunitySearchResultDTO;
+import com.communityhub.dto.SearchIndexStatsDTO;
+import com.communityhub.model.Community;
+import com.communityhub.repository.CommunityRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory search over the names and descriptions of active public
+ * communities. Private communities are never indexed; they are joined by code.
+ *
+ * <p>Each query word is matched three ways: as a prefix of a name word, as a
+ * prefix of a description word, and by trigram overlap with name words, which
+ * tolerates typos ("runers" finds "Runners"). Words shorter than three
+ * characters are only prefix-matched: their padded trigrams would match most
+ * names. Scores add up over the query words, an exact name match ranks first,
+ * and only the requested number of results is kept while ranking.
+ *
+ * <p>Community changes are applied after their transaction commits. The index
+ * is rebuilt from the database at startup and on a fixed delay, which also
+ * picks up changes made by other instances. Changes applied while a rebuild
+ * reads the database are replayed onto the new index before it is swapped in.
+ */
+@Service
+@RequiredArgsConstructor
+public class CommunitySearchIndex {
+    
+    private static final double NAME_PREFIX_WEIGHT = 3.0;
+    private static final double DESCRIPTION_PREFIX_WEIGHT = 1.0;
+    private static final double NAME_TRIGRAM_WEIGHT = 2.0;
+    private static final double EXACT_NAME_BONUS = 5.0;
+    // Share of a query word's trigrams that a name must contain to count as a fuzzy match
+    private static final double TRIGRAM_THRESHOLD = 0.5;
+    private static final int MIN_PREFIX_LENGTH = 2;
+    private static final int MIN_TRIGRAM_LENGTH = 3;
+    
+    // Best first: higher score, then name
+    private static final Comparator<Candidate> RANKING = Comparator.comparingDouble(Candidate::score).reversed()
+            .thenComparing(candidate -> candidate.document().name(), String.CASE_INSENSITIVE_ORDER);
+    
+    private final CommunityRepository communityRepository;
+    
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Index index = new Index();
+    // Non-null while a rebuild reads the database; guarded by the write lock
+    private List<Consumer<Index>> changesDuringRebuild;
+    
+    private final LongAdder queries = new LongAdder();
+    private final LongAdder totalQueryNanos = new LongAdder();
+    private final AtomicLong maxQueryNanos = new AtomicLong();
+    
+    private record Document(Long id, String name, String description,
+                            Set<String> nameWords, Set<String> descriptionWords, Set<String> nameTrigrams) {
+    }
+    
+    private record Candidate(Document document, double score) {
+    }
+    
+    private static final class Index {
+        final Map<Long, Document> documents = new HashMap<>();
+        final Map<String, Set<Long>> nameTrigrams = new HashMap<>();
+        final TreeMap<String, Set<Long>> nameWords = new TreeMap<>();
+        final TreeMap<String, Set<Long>> descriptionWords = new TreeMap<>();
+        
+        void put(Document document) {
+            remove(document.id());
+            documents.put(document.id(), document);
+            document.nameTrigrams().forEach(t -> nameTrigrams.computeIfAbsent(t, k -> new HashSet<>()).add(document.id()));
+            document.nameWords().forEach(w -> nameWords.computeIfAbsent(w, k -> new HashSet<>()).add(document.id()));
+            document.descriptionWords().forEach(w ->
+                    descriptionWords.computeIfAbsent(w, k -> new HashSet<>()).add(document.id()));
+        }
+        
+        void remove(Long id) {
+            Document document = documents.remove(id);
+            if (document != null) {
+                document.nameTrigrams().forEach(t -> unlink(nameTrigrams, t, id));
+                document.nameWords().forEach(w -> unlink(nameWords, w, id));
+                document.descriptionWords().forEach(w -> unlink(descriptionWords, w, id));
+            }
+        }
+        
+        private static void unlink(Map<String, Set<Long>> postings, String key, Long id) {
+            postings.computeIfPresent(key, (k, ids) -> {
+                ids.remove(id);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+    
+    public List<CommunitySearchResultDTO> search(String query, int limit) {
+        long start = System.nanoTime();
+        List<String> words = new ArrayList<>(words(query));
+        if (words.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        String normalizedQuery = String.join(" ", words);
+        
+        List<CommunitySearchResultDTO> results;
+        lock.readLock().lock();
+        try {
+            Map<Long, Double> scores = new HashMap<>();
+            for (String word : words) {
+                if (word.length() >= MIN_PREFIX_LENGTH) {
+                    addPrefixMatches(index.nameWords, word, NAME_PREFIX_WEIGHT, scores);
+                    addPrefixMatches(index.descriptionWords, word, DESCRIPTION_PREFIX_WEIGHT, scores);
+                }
+                if (word.length() >= MIN_TRIGRAM_LENGTH) {
+                    addTrigramMatches(word, scores);
+                }
+            }
+            
+            // Bounded heap with the weakest of the best results on top: O(n log limit)
+            PriorityQueue<Candidate> top = new PriorityQueue<>(Math.min(limit, scores.size()) + 1, RANKING.reversed());
+            scores.forEach((id, score) -> {
+                Document document = index.documents.get(id);
+                boolean exactName = String.join(" ", document.nameWords()).equals(normalizedQuery);
+                top.offer(new Candidate(document, exactName ? score + EXACT_NAME_BONUS : score));
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            });
+            
+            List<Candidate> ranked = new ArrayList<>(top);
+            ranked.sort(RANKING);
+            results = ranked.stream()
+                    .map(candidate -> CommunitySearchResultDTO.builder()
+                            .id(candidate.document().id())
+                            .name(candidate.document().name())
+                            .description(candidate.document().description())
+                            .score(candidate.score())
+                            .build())
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+        
+        long elapsed = System.nanoTime() - start;
+        queries.increment();
+        totalQueryNanos.add(elapsed);
+        maxQueryNanos.accumulateAndGet(elapsed, Math::max);
+        return results;
+    }
+    
+    /**
+     * Indexes, re-indexes or drops the community once the current transaction
+     * commits, depending on whether it is active and public.
+     */
+    public void update(Community community) {
+        Document document = community.getIsActive() && !community.getIsPrivate() ? toDocument(
+                community.getId(), community.getName(), community.getDescription()) : null;
+        Long id = community.getId();
+        TransactionCallbacks.afterCommit(() -> apply(target -> {
+            if (document != null) {
+                target.put(document);
+            } else {
+                target.remove(id);
+            }
+        }));
+    }
+    
+    public void remove(Long communityId) {
+        TransactionCallbacks.afterCommit(() -> apply(target -> target.remove(communityId)));
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${app.search.rebuild-interval-ms:600000}",
+               fixedDelayString = "${app.search.rebuild-interval-ms:600000}")
+    public synchronized void rebuild() {
+        List<Consumer<Index>> changes = new ArrayList<>();
+        lock.writeLock().lock();
+        try {
+            changesDuringRebuild = changes;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        
+        Index rebuilt = new Index();
+        try {
+            for (Object[] row : communityRepository.findSearchableCommunities()) {
+                rebuilt.put(toDocument((Long) row[0], (String) row[1], (String) row[2]));
+            }
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                changesDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+        
+        lock.writeLock().lock();
+        try {
+            // The read may predate these changes; put and remove are idempotent, so replaying is safe
+            changes.forEach(change -> change.accept(rebuilt));
+            index = rebuilt;
+            changesDuringRebuild = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    public SearchIndexStatsDTO getStats() {
+        long queryCount = queries.sum();
+        int documents;
+        lock.readLock().lock();
+        try {
+            documents = index.documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+        return SearchIndexStatsDTO.builder()
+                .documents(documents)
+                .queries(queryCount)
+                .averageLatencyMicros(queryCount > 0 ? totalQueryNanos.sum() / queryCount / 1000 : 0)
+                .maxLatencyMicros(maxQueryNanos.get() / 1000)
+                .build();
+    }
+    
+    private void apply(Consumer<Index> change) {
+        lock.writeLock().lock();
+        try {
+            change.accept(index);
+            if (changesDuringRebuild != null) {
+                changesDuringRebuild.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    private void addPrefixMatches(TreeMap<String, Set<Long>> postings, String prefix, double weight,
+                                  Map<Long, Double> scores) {
+        Set<Long> matched = new HashSet<>();
+        postings.subMap(prefix, true, prefix + Character.MAX_VALUE, true).values().forEach(matched::addAll);
+        matched.forEach(id -> scores.merge(id, weight, Double::sum));
+    }
+    
+    private void addTrigramMatches(String word, Map<Long, Double> scores) {
+        Set<String> wordTrigrams = trigrams(word);
+        Map<Long, Integer> shared = new HashMap<>();
+        for (String trigram : wordTrigrams) {
+            Set<Long> ids = index.nameTrigrams.get(trigram);
+            if (ids != null) {
+                ids.forEach(id -> shared.merge(id, 1, Integer::sum));
+            }
+        }
+        shared.forEach((id, count) -> {
+            double similarity = (double) count / wordTrigrams.size();
+            if (similarity >= TRIGRAM_THRESHOLD) {
+                scores.merge(id, NAME_TRIGRAM_WEIGHT * similarity, Double::sum);
+            }
+        });
+    }
+    
+    private static Document toDocument(Long id, String name, String description) {
+        Set<String> nameWords = words(name);
+        Set<String> nameTrigrams = new HashSet<>();
+        nameWords.forEach(word -> nameTrigrams.addAll(trigrams(word)));
+        return new Document(id, name, description, nameWords, words(description), nameTrigrams);
+    }
+    
+    private static Set<String> words(String text) {
+        Set<String> words = new LinkedHashSet<>();
+        if (text != null) {
+            for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+                if (!word.isEmpty()) {
+                    words.add(word);
+                }
+            }
+        }
+        return words;
+    }
+    
+    // Same padding as pg_trgm: two leading blanks and one trailing
+    private static Set<String> trigrams(String word) {
+        String padded = "  " + word + " ";
+        Set<String> trigrams = new HashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            trigrams.add(padded.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+}
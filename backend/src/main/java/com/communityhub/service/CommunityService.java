@@ -2,7 +2,11 @@ package com.communityhub.service;
 
 import com.communityhub.model.Community;
 import com.communityhub.repository.CommunityRepository;
+import com.communityhub.repository.MessageVolumeHourlyRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -14,11 +18,38 @@ import java.util.Optional;
 public class CommunityService {
     
     private final CommunityRepository communityRepository;
+    private final ChatRoomDirectory chatRoomDirectory;
+    private final AuthorizationCache authorizationCache;
+    private final StatisticsCounterService statisticsCounterService;
+    private final MessageVolumeHourlyRepository messageVolumeHourlyRepository;
+    private final CommunitySearchIndex communitySearchIndex;
+    private final InboxService inboxService;
+    
+    public enum DirectorySort {
+        NAME(Sort.by("name").ascending()),
+        MEMBERS(Sort.by("memberCount").descending()),
+        RECENT(Sort.by("createdAt").descending());
+        
+        private final Sort sort;
+        
+        DirectorySort(Sort sort) {
+            // Id breaks ties so pages do not overlap
+            this.sort = sort.and(Sort.by("id").ascending());
+        }
+    }
     
     public List<Community> getAllCommunities() {
         return communityRepository.findAll();
     }
     
+    /**
+     * One page of active public communities; member counts come from the
+     * maintained column, so no per-community queries are needed.
+     */
+    public Slice<Community> getPublicDirectory(DirectorySort sort, int page, int size) {
+        return communityRepository.findByIsPrivateFalseAndIsActiveTrue(PageRequest.of(page, size, sort.sort));
+    }
+    
     @SuppressWarnings("null")
     public Optional<Community> getCommunityById(Long id) {
         return communityRepository.findById(id);
@@ -31,7 +62,10 @@ public class CommunityService {
     @Transactional
     @SuppressWarnings("null")
     public Community createCommunity(Community community) {
-        return communityRepository.save(community);
+        Community saved = communityRepository.save(community);
+        statisticsCounterService.communityCreated(saved.getId(), Boolean.TRUE.equals(saved.getIsPrivate()));
+        communitySearchIndex.update(saved);
+        return saved;
     }
     
     @Transactional
@@ -40,25 +74,30 @@ public class CommunityService {
         Community community = communityRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Community not found"));
         
+        boolean wasPrivate = Boolean.TRUE.equals(community.getIsPrivate());
         community.setName(communityDetails.getName());
         community.setDescription(communityDetails.getDescription());
         community.setIsPrivate(communityDetails.getIsPrivate());
         community.setLogoUrl(communityDetails.getLogoUrl());
         community.setAllowMemberToMemberDM(communityDetails.getAllowMemberToMemberDM());
         
-        return communityRepository.save(community);
+        Community saved = communityRepository.save(community);
+        statisticsCounterService.communityVisibilityChanged(wasPrivate, Boolean.TRUE.equals(saved.getIsPrivate()));
+        communitySearchIndex.update(saved);
+        return saved;
     }
     
     @Transactional
     @SuppressWarnings("null")
     public void deleteCommunity(Long id) {
         // Verify community exists
-        if (!communityRepository.existsById(id)) {
-            throw new RuntimeException("Community not found");
-        }
+        boolean wasPrivate = communityRepository.findById(id)
+                .map(community -> Boolean.TRUE.equals(community.getIsPrivate()))
+                .orElseThrow(() -> new RuntimeException("Community not found"));
         
         // Delete related entities in correct order to avoid FK constraints
         communityRepository.deleteActivitiesByCommunityId(id);
+        communityRepository.deleteDmConversationSummariesByCommunityId(id);
         communityRepository.deleteDmMessagesByCommunityId(id);
         communityRepository.deleteInvitesByCommunityId(id);
         communityRepository.deleteJoinRequestsByCommunityId(id);
@@ -66,9 +105,16 @@ public class CommunityService {
         communityRepository.deleteGroupChatsByCommunityId(id);
         communityRepository.deleteChannelsByCommunityId(id);
         communityRepository.deleteMembershipsByCommunityId(id);
+        messageVolumeHourlyRepository.deleteByCommunityId(id);
         
         // Finally delete the community itself
         communityRepository.deleteById(id);
         communityRepository.flush();
+        
+        statisticsCounterService.communityDeleted(id, wasPrivate);
+        communitySearchIndex.remove(id);
+        chatRoomDirectory.evictCommunity(id);
+        authorizationCache.evictCommunity(id);
+        inboxService.communityDeleted(id);
     }
 }
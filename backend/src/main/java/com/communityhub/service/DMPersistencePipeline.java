@@ -0,0 +1,117 @@
+package com.communityhub.service;
+
+import com.communityhub.dto.MessageFailureDTO;
+import com.communityhub.model.DMMessage;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Batched persistence for direct messages; configured under {@code app.messaging.dm}.
+ * The inbox summaries are advanced in the same transaction as the inserts.
+ */
+@Service
+public class DMPersistencePipeline extends BatchWritePipeline<DMMessage> {
+    
+    private static final String INSERT_SQL =
+            "INSERT INTO dm_messages (id, sender_id, receiver_id, community_id, low_user_id, high_user_id, " +
+            "content, attachment_url, attachment_name, is_read, is_deleted, created_at, read_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    
+    private final SimpMessagingTemplate messagingTemplate;
+    private final InboxService inboxService;
+    private final StatisticsCounterService statisticsCounterService;
+    private final MessageVolumeService messageVolumeService;
+    
+    public DMPersistencePipeline(JdbcTemplate jdbcTemplate,
+                                 TransactionTemplate transactionTemplate,
+                                 Environment environment,
+                                 SimpMessagingTemplate messagingTemplate,
+                                 InboxService inboxService,
+                                 StatisticsCounterService statisticsCounterService,
+                                 MessageVolumeService messageVolumeService) {
+        super(jdbcTemplate, transactionTemplate, environment, "dm", "dm_messages");
+        this.messagingTemplate = messagingTemplate;
+        this.inboxService = inboxService;
+        this.statisticsCounterService = statisticsCounterService;
+        this.messageVolumeService = messageVolumeService;
+    }
+    
+    /**
+     * Assigns the message id, creation time and conversation key, then queues it
+     * for the next batch.
+     */
+    public DMMessage persist(DMMessage message) {
+        message.setId(nextId());
+        message.setCreatedAt(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
+        message.assignConversationKey();
+        return enqueue(message);
+    }
+    
+    @Override
+    protected void write(List<DMMessage> messages) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                DMMessage m = messages.get(i);
+                ps.setLong(1, m.getId());
+                ps.setLong(2, m.getSender().getId());
+                ps.setLong(3, m.getReceiver().getId());
+                ps.setLong(4, m.getCommunity().getId());
+                ps.setLong(5, m.getLowUserId());
+                ps.setLong(6, m.getHighUserId());
+                ps.setString(7, m.getContent());
+                ps.setString(8, m.getAttachmentUrl());
+                ps.setString(9, m.getAttachmentName());
+                ps.setBoolean(10, m.getIsRead());
+                ps.setBoolean(11, m.getIsDeleted());
+                ps.setTimestamp(12, Timestamp.valueOf(m.getCreatedAt()));
+                ps.setTimestamp(13, m.getReadAt() != null ? Timestamp.valueOf(m.getReadAt()) : null);
+            }
+            
+            @Override
+            public int getBatchSize() {
+                return messages.size();
+            }
+        });
+        inboxService.recordMessages(messages);
+        
+        Map<Long, Long> perCommunity = new HashMap<>();
+        Map<MessageVolumeService.Bucket, Long> perHour = new HashMap<>();
+        for (DMMessage message : messages) {
+            perCommunity.merge(message.getCommunity().getId(), 1L, Long::sum);
+            perHour.merge(MessageVolumeService.Bucket.of(message.getCommunity().getId(), message.getCreatedAt()),
+                    1L, Long::sum);
+        }
+        statisticsCounterService.incrementAll(StatisticsCounterService.Counter.DM_MESSAGES, perCommunity);
+        statisticsCounterService.incrementGlobal(StatisticsCounterService.Counter.DM_MESSAGES, messages.size());
+        messageVolumeService.record(MessageVolumeService.Kind.DM, perHour);
+    }
+    
+    @Override
+    protected void onWriteFailed(DMMessage message, RuntimeException error) {
+        messagingTemplate.convertAndSendToUser(
+                message.getSender().getEmail(),
+                "/queue/message-failures",
+                MessageFailureDTO.builder()
+                        .messageId(message.getId())
+                        .roomType("DM")
+                        .roomId(message.getReceiver().getId())
+                        .communityId(message.getCommunity().getId())
+                        .reason("Message could not be saved")
+                        .build()
+        );
+    }
+}
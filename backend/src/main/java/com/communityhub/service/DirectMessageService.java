@@ -0,0 +1,82 @@
+package com.communityhub.service;
+
+import com.communityhub.repository.DMMessageRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Service
+@RequiredArgsConstructor
+public class DirectMessageService {
+    
+    private static final int BACKFILL_BATCH_SIZE = 5000;
+    
+    private final DMMessageRepository dmMessageRepository;
+    private final InboxService inboxService;
+    
+    /**
+     * Applies a read watermark: one UPDATE for the messages and one adjustment of
+     * the reader's inbox unread count. Returns the number of messages newly read.
+     */
+    @Transactional
+    public int markConversationRead(Long readerId, Long otherUserId, Long communityId,
+                                    LocalDateTime upToCreatedAt, Long upToMessageId, LocalDateTime readAt) {
+        int updated = dmMessageRepository.markReadUpTo(
+                Math.min(readerId, otherUserId),
+                Math.max(readerId, otherUserId),
+                readerId,
+                communityId,
+                upToCreatedAt,
+                upToMessageId,
+                readAt
+        );
+        inboxService.recordRead(readerId, otherUserId, communityId, updated);
+        return updated;
+    }
+    
+    /**
+     * Marks one message read; a no-op for unknown or already-read messages, so
+     * the inbox unread count is only decremented once.
+     */
+    @Transactional
+    @SuppressWarnings("null")
+    public void markMessageRead(Long messageId, LocalDateTime readAt) {
+        dmMessageRepository.findById(messageId)
+                .filter(message -> !Boolean.TRUE.equals(message.getIsRead()))
+                .ifPresent(message -> {
+                    message.setIsRead(true);
+                    message.setReadAt(readAt);
+                    dmMessageRepository.save(message);
+                    inboxService.recordRead(
+                            message.getReceiver().getId(),
+                            message.getSender().getId(),
+                            message.getCommunity().getId(),
+                            1
+                    );
+                });
+    }
+    
+    /**
+     * Assigns the canonical (low, high) user key to messages stored before the
+     * column was introduced. Each batch commits on its own; a no-op once done.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillConversationKeys() {
+        long total = 0;
+        int updated;
+        do {
+            updated = dmMessageRepository.backfillConversationKeys(BACKFILL_BATCH_SIZE);
+            total += updated;
+        } while (updated == BACKFILL_BATCH_SIZE);
+        
+        if (total > 0) {
+            System.out.println("Backfilled conversation keys on " + total + " DM messages");
+        }
+        // Only once every row has its key, so history queries never fall back to a scan
+        dmMessageRepository.dropSupersededConversationIndexes();
+    }
+}
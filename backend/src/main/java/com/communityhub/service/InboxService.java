@@ -0,0 +1,108 @@
+package com.communityhub.service;
+
+import com.communityhub.model.DMConversationSummary;
+import com.communityhub.model.DMMessage;
+import com.communityhub.repository.DMConversationSummaryRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+@RequiredArgsConstructor
+public class InboxService {
+    
+    private static final int PREVIEW_LENGTH = 500;
+    
+    private final DMConversationSummaryRepository summaryRepository;
+    private final UnreadCounterService unreadCounterService;
+    
+    public List<DMConversationSummary> getInbox(Long userId, Long communityId, int page, int size) {
+        return summaryRepository.findInbox(userId, communityId, PageRequest.of(page, size));
+    }
+    
+    /**
+     * Advances both participants' inbox rows for a batch of stored messages; only
+     * the receiver's unread count goes up. Messages that land in the same
+     * conversation are coalesced so each inbox row is upserted once per batch.
+     */
+    @Transactional
+    public void recordMessages(List<DMMessage> messages) {
+        Map<List<Long>, DMMessage> latest = new LinkedHashMap<>();
+        Map<List<Long>, Integer> unreadDeltas = new HashMap<>();
+        
+        for (DMMessage message : messages) {
+            Long senderId = message.getSender().getId();
+            Long receiverId = message.getReceiver().getId();
+            Long communityId = message.getCommunity().getId();
+            
+            List<Long> senderSide = List.of(senderId, receiverId, communityId);
+            List<Long> receiverSide = List.of(receiverId, senderId, communityId);
+            latest.merge(senderSide, message, InboxService::newer);
+            latest.merge(receiverSide, message, InboxService::newer);
+            unreadDeltas.merge(receiverSide, 1, Integer::sum);
+        }
+        
+        Map<List<Long>, Object[]> written = new HashMap<>();
+        latest.forEach((key, message) -> written.put(key, summaryRepository.upsertMessage(
+                key.get(0), key.get(1), key.get(2),
+                message.getId(), preview(message.getContent()), message.getSender().getId(),
+                unreadDeltas.getOrDefault(key, 0), message.getCreatedAt()).get(0)));
+        
+        TransactionCallbacks.afterCommit(() -> written.forEach((key, state) ->
+                updateCounter(key.get(0), key.get(1), key.get(2), state)));
+    }
+    
+    @Transactional
+    public void recordRead(Long readerId, Long senderId, Long communityId, int count) {
+        if (count > 0) {
+            List<Object[]> written = summaryRepository.decrementUnread(readerId, senderId, communityId, count);
+            if (!written.isEmpty()) {
+                TransactionCallbacks.afterCommit(() ->
+                        updateCounter(readerId, senderId, communityId, written.get(0)));
+            }
+        }
+    }
+    
+    /** Drops cached unread counters for a community once its deletion commits. */
+    public void communityDeleted(Long communityId) {
+        TransactionCallbacks.afterCommit(() -> unreadCounterService.evictCommunity(communityId));
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(0)
+    @Transactional
+    public void backfillIfEmpty() {
+        if (summaryRepository.count() == 0) {
+            int rows = summaryRepository.backfillFromMessages();
+            if (rows > 0) {
+                System.out.println("Backfilled " + rows + " DM conversation summaries");
+            }
+        }
+    }
+    
+    // State rows are (unreadCount, unreadVersion) as returned by the summary writes
+    private void updateCounter(Long ownerId, Long otherUserId, Long communityId, Object[] state) {
+        unreadCounterService.update(ownerId, otherUserId, communityId,
+                ((Number) state[0]).intValue(), ((Number) state[1]).longValue());
+    }
+    
+    private static DMMessage newer(DMMessage a, DMMessage b) {
+        return b.getCreatedAt().isBefore(a.getCreatedAt()) ? a : b;
+    }
+    
+    private String preview(String content) {
+        if (content == null || content.length() <= PREVIEW_LENGTH) {
+            return content;
+        }
+        return content.substring(0, PREVIEW_LENGTH);
+    }
+}
@@ -23,6 +23,7 @@ public class JoinRequestService {
     private final UserRepository userRepository;
     private final MembershipService membershipService;
     private final ActivityService activityService;
+    private final StatisticsCounterService statisticsCounterService;
     
     public List<JoinRequestDTO> getPendingRequests(Long communityId) {
         return joinRequestRepository.findByCommunityIdAndStatus(
@@ -33,6 +34,14 @@ public class JoinRequestService {
                 .collect(Collectors.toList());
     }
     
+    @Transactional
+    public JoinRequest submitRequest(JoinRequest request) {
+        JoinRequest saved = joinRequestRepository.save(request);
+        statisticsCounterService.increment(
+                saved.getCommunity().getId(), StatisticsCounterService.Counter.PENDING_REQUESTS, 1);
+        return saved;
+    }
+    
     public List<JoinRequestDTO> getAllRequests(Long communityId) {
         return joinRequestRepository.findAll().stream()
                 .filter(jr -> jr.getCommunity().getId().equals(communityId))
@@ -67,6 +76,8 @@ public class JoinRequestService {
         request.setReviewedAt(LocalDateTime.now());
         
         JoinRequest updated = joinRequestRepository.save(request);
+        statisticsCounterService.increment(
+                request.getCommunity().getId(), StatisticsCounterService.Counter.PENDING_REQUESTS, -1);
         
         // Log activity
         activityService.logActivity(
@@ -99,6 +110,8 @@ public class JoinRequestService {
         request.setReviewNote(reason);
         
         JoinRequest updated = joinRequestRepository.save(request);
+        statisticsCounterService.increment(
+                request.getCommunity().getId(), StatisticsCounterService.Counter.PENDING_REQUESTS, -1);
         
         // Log activity
         activityService.logActivity(
@@ -113,10 +126,10 @@ public class JoinRequestService {
     }
     
     public long getPendingRequestCount(Long communityId) {
-        return joinRequestRepository.findByCommunityIdAndStatus(
+        return joinRequestRepository.countByCommunityIdAndStatus(
                 communityId,
                 JoinRequest.RequestStatus.PENDING
-        ).size();
+        );
     }
     
     @Transactional
@@ -126,6 +139,10 @@ public class JoinRequestService {
                 .orElseThrow(() -> new RuntimeException("Join request not found"));
         
         joinRequestRepository.delete(request);
+        if (request.getStatus() == JoinRequest.RequestStatus.PENDING) {
+            statisticsCounterService.increment(
+                    request.getCommunity().getId(), StatisticsCounterService.Counter.PENDING_REQUESTS, -1);
+        }
     }
     
     private JoinRequestDTO convertToDTO(JoinRequest request) {
@@ -0,0 +1,167 @@
+package com.communityhub.service;
+
+import com.communityhub.repository.MembershipRepository;
+import com.communityhub.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Collects users' last-seen times in memory and writes them to
+ * {@code users.last_login_at} in one batched UPDATE per flush interval, so
+ * repeated sign-ins only cost a map update.
+ *
+ * <p>It is also the source of "active users": everyone seen within the
+ * activity window is kept, indexed by the communities they are an active
+ * member of. The index is seeded from {@code users.last_login_at} at startup,
+ * and a user's communities are re-read in one batched query at the flush after
+ * each sighting, so a stats request only reads a set size.
+ */
+@Service
+@RequiredArgsConstructor
+public class LastSeenRecorder {
+    
+    private static final String UPDATE_SQL =
+            "UPDATE users SET last_login_at = ? WHERE id = ? AND (last_login_at IS NULL OR last_login_at < ?)";
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final UserRepository userRepository;
+    private final MembershipRepository membershipRepository;
+    
+    @Value("${app.last-seen.active-window-hours:24}")
+    private long activeWindowHours;
+    
+    private final ConcurrentHashMap<Long, LocalDateTime> dirty = new ConcurrentHashMap<>();
+    // Users seen within the activity window
+    private final ConcurrentHashMap<Long, LocalDateTime> lastSeen = new ConcurrentHashMap<>();
+    // Index over lastSeen; only changed by flush and warmUp, which hold the instance lock
+    private final Map<Long, List<Long>> userCommunities = new HashMap<>();
+    private final ConcurrentHashMap<Long, Set<Long>> activeByCommunity = new ConcurrentHashMap<>();
+    
+    public void record(Long userId) {
+        record(userId, LocalDateTime.now());
+    }
+    
+    public void record(Long userId, LocalDateTime seenAt) {
+        lastSeen.merge(userId, seenAt, LastSeenRecorder::latest);
+        dirty.merge(userId, seenAt, LastSeenRecorder::latest);
+    }
+    
+    /**
+     * Active members of the community seen within the activity window. Exact
+     * up to one flush interval.
+     */
+    public long countActive(Long communityId) {
+        Set<Long> users = activeByCommunity.get(communityId);
+        return users != null ? users.size() : 0;
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void warmUp() {
+        LocalDateTime since = LocalDateTime.now().minusHours(activeWindowHours);
+        Map<Long, List<Long>> communities = new HashMap<>();
+        // Rows are (userId, lastLoginAt, communityId), communityId null for users without active memberships
+        for (Object[] row : userRepository.findRecentLoginsWithCommunities(since)) {
+            Long userId = (Long) row[0];
+            lastSeen.merge(userId, (LocalDateTime) row[1], LastSeenRecorder::latest);
+            List<Long> ids = communities.computeIfAbsent(userId, id -> new ArrayList<>());
+            if (row[2] != null) {
+                ids.add((Long) row[2]);
+            }
+        }
+        communities.forEach(this::index);
+    }
+    
+    @Scheduled(fixedDelayString = "${app.last-seen.flush-interval-ms:5000}")
+    public synchronized void flush() {
+        if (!dirty.isEmpty()) {
+            List<Object[]> batch = new ArrayList<>(dirty.size());
+            for (Map.Entry<Long, LocalDateTime> entry : dirty.entrySet()) {
+                // Only drop the entry if no newer time was recorded meanwhile
+                if (dirty.remove(entry.getKey(), entry.getValue())) {
+                    Timestamp seenAt = Timestamp.valueOf(entry.getValue());
+                    batch.add(new Object[]{seenAt, entry.getKey(), seenAt});
+                }
+            }
+            try {
+                jdbcTemplate.batchUpdate(UPDATE_SQL, batch);
+            } catch (RuntimeException e) {
+                // Keep the times for the next flush
+                for (Object[] row : batch) {
+                    dirty.merge((Long) row[1], ((Timestamp) row[0]).toLocalDateTime(), LastSeenRecorder::latest);
+                }
+                System.err.println("Failed to flush last-seen times: " + e.getMessage());
+            }
+            reindex(batch.stream().map(row -> (Long) row[1]).toList());
+        }
+        
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(activeWindowHours);
+        lastSeen.forEach((userId, seenAt) -> {
+            if (seenAt.isBefore(cutoff) && lastSeen.remove(userId, seenAt)) {
+                index(userId, List.of());
+            }
+        });
+    }
+    
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+    }
+    
+    // Picks up membership changes of the users just seen
+    private void reindex(List<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        Map<Long, List<Long>> communities = new HashMap<>();
+        userIds.forEach(userId -> communities.put(userId, new ArrayList<>()));
+        try {
+            // Rows are (userId, communityId)
+            for (Object[] row : membershipRepository.findActiveCommunityIdsByUserIds(userIds)) {
+                communities.get((Long) row[0]).add((Long) row[1]);
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Failed to load communities of active users: " + e.getMessage());
+            return;
+        }
+        communities.forEach(this::index);
+    }
+    
+    private void index(Long userId, List<Long> communityIds) {
+        List<Long> previous = userCommunities.remove(userId);
+        if (previous != null) {
+            for (Long communityId : previous) {
+                activeByCommunity.computeIfPresent(communityId, (id, users) -> {
+                    users.remove(userId);
+                    return users.isEmpty() ? null : users;
+                });
+            }
+        }
+        // A user pruned from the window while their communities were loading stays out
+        if (communityIds.isEmpty() || !lastSeen.containsKey(userId)) {
+            return;
+        }
+        userCommunities.put(userId, communityIds);
+        for (Long communityId : communityIds) {
+            activeByCommunity.computeIfAbsent(communityId, id -> ConcurrentHashMap.newKeySet()).add(userId);
+        }
+    }
+    
+    private static LocalDateTime latest(LocalDateTime a, LocalDateTime b) {
+        return a.isAfter(b) ? a : b;
+    }
+}
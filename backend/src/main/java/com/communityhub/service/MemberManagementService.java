@@ -2,17 +2,20 @@ package com.communityhub.service;
 
 import com.communityhub.dto.ActivityDTO;
 import com.communityhub.dto.MemberDetailsDTO;
+import com.communityhub.dto.MemberSummaryDTO;
 import com.communityhub.model.Membership;
 import com.communityhub.model.User;
 import com.communityhub.repository.MembershipRepository;
 import com.communityhub.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Locale;
 
 @Service
 @RequiredArgsConstructor
@@ -21,11 +24,58 @@ public class MemberManagementService {
     private final MembershipRepository membershipRepository;
     private final UserRepository userRepository;
     private final ActivityService activityService;
+    private final AuthorizationCache authorizationCache;
+    private final ChatRoomDirectory chatRoomDirectory;
+    private final StatisticsCounterService statisticsCounterService;
     
-    public List<MemberDetailsDTO> getCommunityMembers(Long communityId) {
-        return membershipRepository.findByCommunityId(communityId).stream()
-                .map(this::convertToDetailsDTO)
-                .collect(Collectors.toList());
+    public enum MemberView {
+        SUMMARY,
+        FULL
+    }
+    
+    /** Optional member list filters; null fields match every member. */
+    public record MemberFilter(Membership.RoleType role, String department, Boolean active, String namePrefix) {
+    }
+    
+    /**
+     * One page of members. {@code members} holds {@link MemberSummaryDTO}s or
+     * {@link MemberDetailsDTO}s depending on the {@link MemberView}; pass
+     * {@code nextCursor} back to get the following page.
+     */
+    public record MemberPage(List<?> members, String nextCursor, boolean hasMore) {
+    }
+    
+    /**
+     * Lists a community's members in join order with keyset pagination on the
+     * membership id. Users are joined into a single column projection, so a
+     * page is one query however many members it holds.
+     */
+    public MemberPage getCommunityMembers(Long communityId, MemberFilter filter, String cursor,
+                                          int limit, MemberView view) {
+        String namePrefix = filter.namePrefix() == null || filter.namePrefix().isBlank() ? null
+                : escapeLike(filter.namePrefix().trim().toLowerCase(Locale.ROOT)) + "%";
+        // Fetch one extra row to know whether another page exists without a COUNT query
+        PageRequest window = PageRequest.of(0, limit + 1);
+        
+        List<Object[]> rows;
+        if (cursor != null) {
+            rows = membershipRepository.findMemberPageAfter(communityId, filter.role(), filter.department(),
+                    filter.active(), namePrefix, parseCursor(cursor), window);
+        } else {
+            rows = membershipRepository.findMemberPage(communityId, filter.role(), filter.department(),
+                    filter.active(), namePrefix, window);
+        }
+        
+        boolean hasMore = rows.size() > limit;
+        if (hasMore) {
+            rows = rows.subList(0, limit);
+        }
+        
+        List<?> members = rows.stream()
+                .map(row -> view == MemberView.SUMMARY ? toSummaryDTO(row) : toDetailsDTO(row))
+                .toList();
+        String nextCursor = hasMore ? rows.get(rows.size() - 1)[0].toString() : null;
+        return new MemberPage(members, nextCursor, hasMore);
     }
     
     @SuppressWarnings("null")
@@ -59,6 +109,9 @@ public class MemberManagementService {
         membership.setIsActive(true);
         
         Membership saved = membershipRepository.save(membership);
+        authorizationCache.invalidate(userId, communityId);
+        chatRoomDirectory.evictMember(userId, communityId);
+        statisticsCounterService.membershipAdded(communityId, role, true);
         
         // Log activity
         activityService.logActivity(
@@ -85,6 +138,9 @@ public class MemberManagementService {
         Membership.RoleType oldRole = membership.getRole();
         membership.setRole(newRole);
         Membership updated = membershipRepository.save(membership);
+        authorizationCache.invalidate(membership.getUser().getId(), communityId);
+        statisticsCounterService.roleChanged(communityId, oldRole, newRole,
+                Boolean.TRUE.equals(membership.getIsActive()));
         
         // Log activity
         activityService.logActivity(
@@ -118,6 +174,9 @@ public class MemberManagementService {
         );
         
         membershipRepository.deleteById(memberId);
+        authorizationCache.invalidate(membership.getUser().getId(), communityId);
+        chatRoomDirectory.evictMember(membership.getUser().getId(), communityId);
+        statisticsCounterService.membershipRemoved(communityId, membership.getRole(), membership.getIsActive());
     }
     
     @SuppressWarnings("null")
@@ -149,4 +208,46 @@ public class MemberManagementService {
                 .recentActivity(new ArrayList<>())
                 .build();
     }
+    
+    // Row shapes are documented on MembershipRepository.findMemberPage
+    private MemberSummaryDTO toSummaryDTO(Object[] row) {
+        return MemberSummaryDTO.builder()
+                .id((Long) row[0])
+                .userId((Long) row[1])
+                .fullName(row[2] + " " + row[3])
+                .role(((Membership.RoleType) row[5]).name())
+                .profileImageUrl((String) row[8])
+                .isActive((Boolean) row[9])
+                .build();
+    }
+    
+    private MemberDetailsDTO toDetailsDTO(Object[] row) {
+        return MemberDetailsDTO.builder()
+                .id((Long) row[0])
+                .userId((Long) row[1])
+                .fullName(row[2] + " " + row[3])
+                .email((String) row[4])
+                .role(((Membership.RoleType) row[5]).name())
+                .department((String) row[6])
+                .phoneNumber((String) row[7])
+                .profileImageUrl((String) row[8])
+                .isActive((Boolean) row[9])
+                .joinedAt((LocalDateTime) row[10])
+                .lastActive((LocalDateTime) row[11])
+                .recentActivity(new ArrayList<>())
+                .build();
+    }
+    
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+    
+    // The cursor is the last membership id of the previous page
+    private static Long parseCursor(String cursor) {
+        try {
+            return Long.parseLong(cursor);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
 }
@@ -1,5 +1,6 @@
 package com.communityhub.service;
 
+import com.communityhub.dto.CommunityDTO;
 import com.communityhub.model.Community;
 import com.communityhub.model.Membership;
 import com.communityhub.model.User;
@@ -8,7 +9,9 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -16,11 +19,35 @@ import java.util.Optional;
 public class MembershipService {
     
     private final MembershipRepository membershipRepository;
+    private final AuthorizationCache authorizationCache;
+    private final ChatRoomDirectory chatRoomDirectory;
+    private final StatisticsCounterService statisticsCounterService;
     
     public List<Membership> getUserMemberships(Long userId) {
         return membershipRepository.findByUserId(userId);
     }
     
+    /**
+     * The user's communities with their role and member count, in one query.
+     */
+    public List<CommunityDTO> getUserCommunities(Long userId) {
+        return membershipRepository.findCommunitySummariesByUserId(userId).stream()
+                .map(row -> CommunityDTO.builder()
+                        .id((Long) row[0])
+                        .name((String) row[1])
+                        .description((String) row[2])
+                        .isPrivate((Boolean) row[3])
+                        .joinCode((String) row[4])
+                        .logoUrl((String) row[5])
+                        .allowMemberToMemberDM((Boolean) row[6])
+                        .isActive((Boolean) row[7])
+                        .createdAt(row[8].toString())
+                        .role(((Membership.RoleType) row[9]).name())
+                        .memberCount((Long) row[10])
+                        .build())
+                .toList();
+    }
+    
     public List<Membership> getCommunityMembers(Long communityId) {
         return membershipRepository.findByCommunityId(communityId);
     }
@@ -30,44 +57,65 @@ public class MembershipService {
     }
     
     public boolean isMember(Long userId, Long communityId) {
-        return membershipRepository.existsByUserIdAndCommunityId(userId, communityId);
+        return authorizationCache.get(userId, communityId).isMember();
     }
     
     @Transactional
     @SuppressWarnings("null")
     public Membership saveMembership(Membership membership) {
-        return membershipRepository.save(membership);
+        boolean created = membership.getId() == null;
+        Membership saved = membershipRepository.save(membership);
+        authorizationCache.invalidate(saved.getUser().getId(), saved.getCommunity().getId());
+        chatRoomDirectory.evictMember(saved.getUser().getId(), saved.getCommunity().getId());
+        if (created) {
+            statisticsCounterService.membershipAdded(saved.getCommunity().getId(), saved.getRole(), saved.getIsActive());
+        }
+        return saved;
     }
     
     @Transactional
     @SuppressWarnings("null")
     public void deleteMembership(Long membershipId) {
-        membershipRepository.deleteById(membershipId);
+        membershipRepository.findById(membershipId).ifPresent(membership -> {
+            membershipRepository.delete(membership);
+            authorizationCache.invalidate(membership.getUser().getId(), membership.getCommunity().getId());
+            chatRoomDirectory.evictMember(membership.getUser().getId(), membership.getCommunity().getId());
+            statisticsCounterService.membershipRemoved(
+                    membership.getCommunity().getId(), membership.getRole(), membership.getIsActive());
+        });
     }
     
     public boolean isAdministrator(Long userId, Long communityId) {
-        return membershipRepository.findByUserIdAndCommunityId(userId, communityId)
-                .map(m -> m.getRole() == Membership.RoleType.ADMINISTRATOR)
-                .orElse(false);
+        return authorizationCache.get(userId, communityId).role() == Membership.RoleType.ADMINISTRATOR;
     }
     
     public boolean isModerator(Long userId, Long communityId) {
-        return membershipRepository.findByUserIdAndCommunityId(userId, communityId)
-                .map(m -> m.getRole() == Membership.RoleType.MODERATOR)
-                .orElse(false);
+        return authorizationCache.get(userId, communityId).role() == Membership.RoleType.MODERATOR;
     }
     
     public boolean isAdminOrModerator(Long userId, Long communityId) {
-        return membershipRepository.findByUserIdAndCommunityId(userId, communityId)
-                .map(m -> m.getRole() == Membership.RoleType.ADMINISTRATOR || 
-                          m.getRole() == Membership.RoleType.MODERATOR)
-                .orElse(false);
+        Membership.RoleType role = authorizationCache.get(userId, communityId).role();
+        return role == Membership.RoleType.ADMINISTRATOR || role == Membership.RoleType.MODERATOR;
+    }
+    
+    /**
+     * Administrators hold every permission; moderators only those granted to
+     * them, see the {@code AuthorizationCache.CAN_*} bits.
+     */
+    public boolean hasPermission(Long userId, Long communityId, int permission) {
+        return authorizationCache.get(userId, communityId).hasPermission(permission);
     }
     
     public long getCommunityMemberCount(Long communityId) {
-        return membershipRepository.findByCommunityId(communityId).stream()
-                .filter(m -> m.getIsActive())
-                .count();
+        return membershipRepository.countByCommunityIdAndIsActiveTrue(communityId);
+    }
+    
+    public Map<Membership.RoleType, Long> getActiveMemberCountsByRole(Long communityId) {
+        Map<Membership.RoleType, Long> counts = new EnumMap<>(Membership.RoleType.class);
+        for (Object[] row : membershipRepository.countActiveByRole(communityId)) {
+            counts.put((Membership.RoleType) row[0], (Long) row[1]);
+        }
+        return counts;
     }
     
     @Transactional
@@ -84,6 +132,10 @@ public class MembershipService {
         membership.setRole(roleType);
         membership.setIsActive(true);
         
-        return membershipRepository.save(membership);
+        Membership saved = membershipRepository.save(membership);
+        authorizationCache.invalidate(user.getId(), community.getId());
+        chatRoomDirectory.evictMember(user.getId(), community.getId());
+        statisticsCounterService.membershipAdded(community.getId(), roleType, true);
+        return saved;
     }
 }
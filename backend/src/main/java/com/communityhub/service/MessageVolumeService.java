@@ -0,0 +1,143 @@
+package com.communityhub.service;
+
+import com.communityhub.dto.MessageVolumeBucketDTO;
+import com.communityhub.repository.MessageVolumeHourlyRepository;
+import lombok.RequiredArgsConstructor;
+import jakarta.annotation.PostConstruct;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hourly message volume per community. The message pipelines add their batch
+ * totals per (community, hour); time series are summed from those rows.
+ */
+@Service
+@RequiredArgsConstructor
+public class MessageVolumeService {
+    
+    public enum Kind {
+        DM("dm_message_count"),
+        CHANNEL("channel_message_count"),
+        GROUP_CHAT("group_chat_message_count");
+        
+        private final String upsertSql;
+        
+        Kind(String column) {
+            this.upsertSql = "INSERT INTO message_volume_hourly (community_id, bucket_start, " + column + ") " +
+                    "VALUES (?, ?, ?) ON CONFLICT (community_id, bucket_start) DO UPDATE SET " +
+                    column + " = message_volume_hourly." + column + " + EXCLUDED." + column;
+        }
+    }
+    
+    public enum Granularity {
+        HOUR(ChronoUnit.HOURS),
+        DAY(ChronoUnit.DAYS),
+        WEEK(ChronoUnit.WEEKS);
+        
+        private final ChronoUnit unit;
+        
+        Granularity(ChronoUnit unit) {
+            this.unit = unit;
+        }
+        
+        // Same boundaries as date_trunc; weeks start on Monday
+        LocalDateTime truncate(LocalDateTime time) {
+            return this == WEEK
+                    ? time.truncatedTo(ChronoUnit.DAYS).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY))
+                    : time.truncatedTo(unit);
+        }
+    }
+    
+    public record Bucket(Long communityId, LocalDateTime hourStart) {
+        
+        public static Bucket of(Long communityId, LocalDateTime createdAt) {
+            return new Bucket(communityId, createdAt.truncatedTo(ChronoUnit.HOURS));
+        }
+    }
+    
+    private static final int MAX_BUCKETS = 10000;
+    
+    private final MessageVolumeHourlyRepository volumeRepository;
+    private final JdbcTemplate jdbcTemplate;
+    
+    /**
+     * Adds per-bucket message counts. Called from a pipeline's write so the
+     * totals commit with the messages.
+     */
+    public void record(Kind kind, Map<Bucket, Long> counts) {
+        List<Object[]> rows = new ArrayList<>(counts.size());
+        counts.forEach((bucket, count) ->
+                rows.add(new Object[]{bucket.communityId(), Timestamp.valueOf(bucket.hourStart()), count}));
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(kind.upsertSql, rows);
+        }
+    }
+    
+    public List<MessageVolumeBucketDTO> getTimeseries(Long communityId,
+                                                     LocalDateTime from,
+                                                     LocalDateTime to,
+                                                     Granularity granularity) {
+        if (!from.isBefore(to)) {
+            throw new RuntimeException("'from' must be before 'to'");
+        }
+        LocalDateTime firstBucket = granularity.truncate(from);
+        if (granularity.unit.between(firstBucket, to) > MAX_BUCKETS) {
+            throw new RuntimeException("Range too large for " + granularity.name().toLowerCase() + " buckets");
+        }
+        
+        // Queried from the start of the first bucket so it is not cut short at 'from'
+        Map<LocalDateTime, Object[]> rows = new HashMap<>();
+        for (Object[] row : volumeRepository.findVolume(communityId, firstBucket, to,
+                granularity.name().toLowerCase())) {
+            rows.put(toLocalDateTime(row[0]), row);
+        }
+        
+        // Every bucket in the range is returned, with zeros where nothing was sent
+        List<MessageVolumeBucketDTO> buckets = new ArrayList<>();
+        for (LocalDateTime bucketStart = firstBucket; bucketStart.isBefore(to);
+             bucketStart = bucketStart.plus(1, granularity.unit)) {
+            Object[] row = rows.get(bucketStart);
+            long dm = row != null ? ((Number) row[1]).longValue() : 0;
+            long channel = row != null ? ((Number) row[2]).longValue() : 0;
+            long groupChat = row != null ? ((Number) row[3]).longValue() : 0;
+            buckets.add(MessageVolumeBucketDTO.builder()
+                    .bucketStart(bucketStart)
+                    .dmMessages(dm)
+                    .channelMessages(channel)
+                    .groupChatMessages(groupChat)
+                    .totalMessages(dm + channel + groupChat)
+                    .build());
+        }
+        return buckets;
+    }
+    
+    /**
+     * Counts messages older than the rollup into it. Runs before any message
+     * pipeline is created (they depend on this service), so nothing recorded
+     * live can overlap: the cutoff is the oldest existing bucket, or now when
+     * the rollup is empty. Once done, no message predates the oldest bucket
+     * and later startups find nothing to add.
+     */
+    @PostConstruct
+    void backfill() {
+        LocalDateTime cutoff = volumeRepository.findOldestBucketStart().orElseGet(LocalDateTime::now);
+        int rows = volumeRepository.backfillFromMessages(cutoff);
+        if (rows > 0) {
+            System.out.println("Backfilled " + rows + " hourly message volume rows");
+        }
+    }
+    
+    private static LocalDateTime toLocalDateTime(Object value) {
+        return value instanceof Timestamp timestamp ? timestamp.toLocalDateTime() : (LocalDateTime) value;
+    }
+}
@@ -21,6 +21,7 @@ public class ModeratorService {
     private final MembershipRepository membershipRepository;
     private final ModeratorPermissionRepository moderatorPermissionRepository;
     private final ActivityService activityService;
+    private final AuthorizationCache authorizationCache;
     
     public List<ModeratorDetailsDTO> getCommunityModerators(Long communityId) {
         List<Membership> moderators = membershipRepository.findByCommunityId(communityId).stream()
@@ -77,6 +78,7 @@ public class ModeratorService {
         
         moderatorPermissionRepository.save(existingPermissions);
         membershipRepository.save(membership);
+        authorizationCache.invalidate(membership.getUser().getId(), membership.getCommunity().getId());
         
         // Log activity
         activityService.logActivity(
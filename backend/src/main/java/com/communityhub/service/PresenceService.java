@@ -0,0 +1,158 @@
+package com.communityhub.service;
+
+import com.communityhub.dto.PresenceDeltaDTO;
+import com.communityhub.repository.MembershipRepository;
+import com.communityhub.security.UserPrincipal;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.security.Principal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks who is connected over STOMP. A user is online while at least one of
+ * their sessions is open; sessions end on DISCONNECT or when the broker's
+ * heartbeat check closes a dead connection.
+ *
+ * <p>Online users are indexed by the communities they belonged to when they
+ * connected. Transitions are coalesced per community and published as one
+ * {@link PresenceDeltaDTO} to {@code /topic/community.{id}.presence} per flush
+ * interval.
+ */
+@Service
+@RequiredArgsConstructor
+public class PresenceService {
+    
+    private final MembershipRepository membershipRepository;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final LastSeenRecorder lastSeenRecorder;
+    
+    private final ConcurrentHashMap<String, Long> sessionUsers = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, OnlineUser> onlineUsers = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Set<Long>> onlineByCommunity = new ConcurrentHashMap<>();
+    // communityId -> (userId -> online), latest state since the last flush
+    private final ConcurrentHashMap<Long, Map<Long, Boolean>> pendingDeltas = new ConcurrentHashMap<>();
+    
+    private record OnlineUser(int sessions, List<Long> communityIds) {
+    }
+    
+    public boolean isOnline(Long userId) {
+        return onlineUsers.containsKey(userId);
+    }
+    
+    public long countOnline() {
+        return onlineUsers.size();
+    }
+    
+    public Set<Long> getOnlineUserIds(Long communityId) {
+        Set<Long> online = onlineByCommunity.get(communityId);
+        return online != null ? Set.copyOf(online) : Collections.emptySet();
+    }
+    
+    public long countOnline(Long communityId) {
+        Set<Long> online = onlineByCommunity.get(communityId);
+        return online != null ? online.size() : 0;
+    }
+    
+    @EventListener
+    public void onConnected(SessionConnectedEvent event) {
+        Long userId = userIdOf(event.getUser());
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(event.getMessage().getHeaders());
+        if (userId == null || sessionId == null || sessionUsers.putIfAbsent(sessionId, userId) != null) {
+            return;
+        }
+        
+        lastSeenRecorder.record(userId);
+        OnlineUser existing = onlineUsers.get(userId);
+        List<Long> communityIds = existing != null
+                ? existing.communityIds()
+                : membershipRepository.findActiveCommunityIdsByUserId(userId);
+        onlineUsers.compute(userId, (id, current) -> {
+            if (current != null) {
+                return new OnlineUser(current.sessions() + 1, current.communityIds());
+            }
+            // First session: index the user under their communities and announce them
+            for (Long communityId : communityIds) {
+                onlineByCommunity.computeIfAbsent(communityId, c -> ConcurrentHashMap.newKeySet()).add(id);
+                queueDelta(communityId, id, true);
+            }
+            return new OnlineUser(1, communityIds);
+        });
+    }
+    
+    @EventListener
+    public void onDisconnected(SessionDisconnectEvent event) {
+        Long userId = sessionUsers.remove(event.getSessionId());
+        if (userId == null) {
+            return;
+        }
+        
+        lastSeenRecorder.record(userId);
+        onlineUsers.computeIfPresent(userId, (id, current) -> {
+            if (current.sessions() > 1) {
+                return new OnlineUser(current.sessions() - 1, current.communityIds());
+            }
+            for (Long communityId : current.communityIds()) {
+                onlineByCommunity.computeIfPresent(communityId, (c, users) -> {
+                    users.remove(id);
+                    return users.isEmpty() ? null : users;
+                });
+                queueDelta(communityId, id, false);
+            }
+            return null;
+        });
+    }
+    
+    @Scheduled(fixedDelayString = "${app.presence.flush-interval-ms:1000}")
+    public void publishDeltas() {
+        String timestamp = LocalDateTime.now().toString();
+        for (Long communityId : pendingDeltas.keySet()) {
+            Map<Long, Boolean> changes = pendingDeltas.remove(communityId);
+            if (changes == null || changes.isEmpty()) {
+                continue;
+            }
+            
+            List<Long> online = new ArrayList<>();
+            List<Long> offline = new ArrayList<>();
+            changes.forEach((userId, isOnline) -> (isOnline ? online : offline).add(userId));
+            messagingTemplate.convertAndSend("/topic/community." + communityId + ".presence",
+                    PresenceDeltaDTO.builder()
+                            .communityId(communityId)
+                            .online(online)
+                            .offline(offline)
+                            .timestamp(timestamp)
+                            .build());
+        }
+    }
+    
+    // Mutated only inside compute so it cannot race with the publisher's remove
+    private void queueDelta(Long communityId, Long userId, boolean online) {
+        pendingDeltas.compute(communityId, (id, changes) -> {
+            Map<Long, Boolean> updated = changes != null ? changes : new HashMap<>();
+            updated.put(userId, online);
+            return updated;
+        });
+    }
+    
+    private static Long userIdOf(Principal principal) {
+        if (principal instanceof Authentication authentication
+                && authentication.getPrincipal() instanceof UserPrincipal user) {
+            return user.getId();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,99 @@
+package com.communityhub.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Result cache with request coalescing. At most one load per key runs at a
+ * time; concurrent callers for the same key wait on that load instead of
+ * starting their own.
+ *
+ * <p>A value is served as-is for {@code ttl}. For the following
+ * {@code maxStale} it is still served immediately while a single background
+ * refresh replaces it (stale-while-revalidate). Older values are reloaded on
+ * the caller's thread, and {@link #evictExpired()} drops them so keys that
+ * are no longer asked for do not stay in memory. Failed loads are not cached.
+ */
+public class SingleFlightCache<K, V> {
+    
+    private final long ttlNanos;
+    private final long maxStaleNanos;
+    private final Executor refreshExecutor;
+    
+    private final ConcurrentHashMap<K, Cached<V>> values = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    
+    private record Cached<V>(V value, long loadedAtNanos) {
+    }
+    
+    public SingleFlightCache(long ttlMs, long maxStaleMs, Executor refreshExecutor) {
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+        this.maxStaleNanos = TimeUnit.MILLISECONDS.toNanos(maxStaleMs);
+        this.refreshExecutor = refreshExecutor;
+    }
+    
+    public V get(K key, Function<K, V> loader) {
+        Cached<V> cached = values.get(key);
+        if (cached != null) {
+            long age = System.nanoTime() - cached.loadedAtNanos();
+            if (age < ttlNanos) {
+                return cached.value();
+            }
+            if (age < ttlNanos + maxStaleNanos) {
+                load(key, loader, true);
+                return cached.value();
+            }
+        }
+        
+        try {
+            return load(key, loader, false).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+    
+    /** Drops values past the stale window; they would be reloaded anyway. */
+    public void evictExpired() {
+        long now = System.nanoTime();
+        values.values().removeIf(cached -> now - cached.loadedAtNanos() >= ttlNanos + maxStaleNanos);
+    }
+    
+    public int size() {
+        return values.size();
+    }
+    
+    // Joins the running load for the key, or starts one on this thread or the refresh executor
+    private CompletableFuture<V> load(K key, Function<K, V> loader, boolean async) {
+        CompletableFuture<V> created = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, created);
+        if (running != null) {
+            return running;
+        }
+        
+        Runnable task = () -> {
+            try {
+                V value = loader.apply(key);
+                values.put(key, new Cached<>(value, System.nanoTime()));
+                created.complete(value);
+            } catch (RuntimeException e) {
+                created.completeExceptionally(e);
+            } finally {
+                inFlight.remove(key, created);
+            }
+        };
+        
+        if (async) {
+            refreshExecutor.execute(task);
+        } else {
+            task.run();
+        }
+        return created;
+    }
+}
@@ -0,0 +1,289 @@
+package com.communityhub.service;
+
+import com.communityhub.model.CommunityCounters;
+import com.communityhub.model.Membership;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Maintains {@code community_counters}. Adjustments are plain upserts issued
+ * on the caller's connection, so they commit or roll back with the change they
+ * count. Message counters are adjusted once per community per persisted batch.
+ *
+ * <p>Reconciliation recomputes every row from the source tables on a fixed
+ * delay (and once at startup), correcting drift from writes that bypass the
+ * services, such as bulk SQL. Corrections are applied as deltas, so they never
+ * overwrite concurrent increments.
+ */
+@Service
+@RequiredArgsConstructor
+public class StatisticsCounterService {
+    
+    public enum Counter {
+        MEMBERS("member_count"),
+        ADMINISTRATORS("administrator_count"),
+        MODERATORS("moderator_count"),
+        PENDING_REQUESTS("pending_request_count"),
+        CHANNELS("channel_count"),
+        GROUP_CHATS("group_chat_count"),
+        CHANNEL_MESSAGES("channel_message_count"),
+        GROUP_CHAT_MESSAGES("group_chat_message_count"),
+        DM_MESSAGES("dm_message_count"),
+        COMMUNITIES("community_count"),
+        PUBLIC_COMMUNITIES("public_community_count"),
+        PRIVATE_COMMUNITIES("private_community_count"),
+        USERS("user_count");
+        
+        private final String upsertSql;
+        
+        Counter(String column) {
+            this.upsertSql = "INSERT INTO community_counters (community_id, " + column + ") VALUES (?, ?) " +
+                    "ON CONFLICT (community_id) DO UPDATE SET " +
+                    column + " = community_counters." + column + " + EXCLUDED." + column;
+        }
+    }
+    
+    private static final String CREATE_ROW_SQL =
+            "INSERT INTO community_counters (community_id) VALUES (?) ON CONFLICT (community_id) DO NOTHING";
+    
+    private static final String DELETE_ROW_SQL =
+            "DELETE FROM community_counters WHERE community_id = ? RETURNING dm_message_count";
+    
+    // Rows are (communityId, memberDelta, administratorDelta, moderatorDelta, pendingRequestDelta,
+    // channelDelta, groupChatDelta, channelMessageDelta, groupChatMessageDelta, dmMessageDelta,
+    // directoryMemberCountDelta); deltas are source count minus stored value
+    private static final String RECONCILE_COMMUNITY_DELTAS_SQL =
+            "SELECT c.id, COALESCE(m.members, 0) - COALESCE(cc.member_count, 0), " +
+            "COALESCE(m.administrators, 0) - COALESCE(cc.administrator_count, 0), " +
+            "COALESCE(m.moderators, 0) - COALESCE(cc.moderator_count, 0), " +
+            "COALESCE(jr.n, 0) - COALESCE(cc.pending_request_count, 0), " +
+            "COALESCE(ch.n, 0) - COALESCE(cc.channel_count, 0), " +
+            "COALESCE(gc.n, 0) - COALESCE(cc.group_chat_count, 0), " +
+            "COALESCE(cm.n, 0) - COALESCE(cc.channel_message_count, 0), " +
+            "COALESCE(gm.n, 0) - COALESCE(cc.group_chat_message_count, 0), " +
+            "COALESCE(dm.n, 0) - COALESCE(cc.dm_message_count, 0), " +
+            "COALESCE(m.members, 0) - c.member_count " +
+            "FROM communities c " +
+            "LEFT JOIN community_counters cc ON cc.community_id = c.id " +
+            "LEFT JOIN (SELECT m.community_id, COUNT(*) FILTER (WHERE m.is_active) AS members, " +
+            "COUNT(*) FILTER (WHERE m.is_active AND m.role = 'ADMINISTRATOR') AS administrators, " +
+            "COUNT(*) FILTER (WHERE m.is_active AND m.role = 'MODERATOR') AS moderators " +
+            "FROM memberships m GROUP BY m.community_id) m ON m.community_id = c.id " +
+            "LEFT JOIN (SELECT community_id, COUNT(*) AS n FROM join_requests WHERE status = 'PENDING' " +
+            "GROUP BY community_id) jr ON jr.community_id = c.id " +
+            "LEFT JOIN (SELECT community_id, COUNT(*) AS n FROM channels GROUP BY community_id) ch " +
+            "ON ch.community_id = c.id " +
+            "LEFT JOIN (SELECT community_id, COUNT(*) AS n FROM group_chats GROUP BY community_id) gc " +
+            "ON gc.community_id = c.id " +
+            "LEFT JOIN (SELECT r.community_id, COUNT(*) AS n FROM channel_messages x " +
+            "JOIN channels r ON r.id = x.channel_id GROUP BY r.community_id) cm ON cm.community_id = c.id " +
+            "LEFT JOIN (SELECT r.community_id, COUNT(*) AS n FROM group_chat_messages x " +
+            "JOIN group_chats r ON r.id = x.group_chat_id GROUP BY r.community_id) gm ON gm.community_id = c.id " +
+            "LEFT JOIN (SELECT community_id, COUNT(*) AS n FROM dm_messages GROUP BY community_id) dm " +
+            "ON dm.community_id = c.id " +
+            "ORDER BY c.id";
+    
+    // One row of (communityDelta, publicCommunityDelta, privateCommunityDelta, userDelta, dmMessageDelta)
+    private static final String RECONCILE_GLOBAL_DELTAS_SQL =
+            "SELECT a.communities - COALESCE(cc.community_count, 0), " +
+            "a.public_communities - COALESCE(cc.public_community_count, 0), " +
+            "a.private_communities - COALESCE(cc.private_community_count, 0), " +
+            "a.users - COALESCE(cc.user_count, 0), a.dm_messages - COALESCE(cc.dm_message_count, 0) " +
+            "FROM (SELECT COUNT(*) AS communities, COUNT(*) FILTER (WHERE NOT is_private) AS public_communities, " +
+            "COUNT(*) FILTER (WHERE is_private) AS private_communities, " +
+            "(SELECT COUNT(*) FROM users) AS users, (SELECT COUNT(*) FROM dm_messages) AS dm_messages " +
+            "FROM communities) a LEFT JOIN community_counters cc ON cc.community_id = ?";
+    
+    private static final String APPLY_COMMUNITY_DELTAS_SQL =
+            "INSERT INTO community_counters (community_id, member_count, administrator_count, moderator_count, " +
+            "pending_request_count, channel_count, group_chat_count, channel_message_count, " +
+            "group_chat_message_count, dm_message_count, reconciled_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (community_id) DO UPDATE SET " +
+            "member_count = community_counters.member_count + EXCLUDED.member_count, " +
+            "administrator_count = community_counters.administrator_count + EXCLUDED.administrator_count, " +
+            "moderator_count = community_counters.moderator_count + EXCLUDED.moderator_count, " +
+            "pending_request_count = community_counters.pending_request_count + EXCLUDED.pending_request_count, " +
+            "channel_count = community_counters.channel_count + EXCLUDED.channel_count, " +
+            "group_chat_count = community_counters.group_chat_count + EXCLUDED.group_chat_count, " +
+            "channel_message_count = community_counters.channel_message_count + EXCLUDED.channel_message_count, " +
+            "group_chat_message_count = community_counters.group_chat_message_count + " +
+            "EXCLUDED.group_chat_message_count, " +
+            "dm_message_count = community_counters.dm_message_count + EXCLUDED.dm_message_count, " +
+            "reconciled_at = EXCLUDED.reconciled_at";
+    
+    private static final String APPLY_GLOBAL_DELTAS_SQL =
+            "INSERT INTO community_counters (community_id, community_count, public_community_count, " +
+            "private_community_count, user_count, dm_message_count, reconciled_at) VALUES (?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (community_id) DO UPDATE SET " +
+            "community_count = community_counters.community_count + EXCLUDED.community_count, " +
+            "public_community_count = community_counters.public_community_count + EXCLUDED.public_community_count, " +
+            "private_community_count = community_counters.private_community_count + " +
+            "EXCLUDED.private_community_count, " +
+            "user_count = community_counters.user_count + EXCLUDED.user_count, " +
+            "dm_message_count = community_counters.dm_message_count + EXCLUDED.dm_message_count, " +
+            "reconciled_at = EXCLUDED.reconciled_at";
+    
+    private static final String DELETE_ORPHANS_SQL =
+            "DELETE FROM community_counters cc WHERE cc.community_id <> ? " +
+            "AND NOT EXISTS (SELECT 1 FROM communities c WHERE c.id = cc.community_id)";
+    
+    private static final String ADJUST_COMMUNITY_MEMBER_COUNT_SQL =
+            "UPDATE communities SET member_count = member_count + ? WHERE id = ?";
+    
+    // Delta columns of RECONCILE_COMMUNITY_DELTAS_SQL
+    private static final int[] COMMUNITY_DELTA_COLUMNS = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10};
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    
+    public void increment(Long communityId, Counter counter, long delta) {
+        if (delta != 0) {
+            jdbcTemplate.update(counter.upsertSql, communityId, delta);
+        }
+    }
+    
+    public void incrementGlobal(Counter counter, long delta) {
+        increment(CommunityCounters.GLOBAL_ID, counter, delta);
+    }
+    
+    /**
+     * Applies one delta per community in a single batch; used by the message
+     * pipelines with per-batch totals. Rows are locked in community id order so
+     * concurrent pipelines cannot deadlock on each other.
+     */
+    public void incrementAll(Counter counter, Map<Long, Long> deltasByCommunity) {
+        List<Object[]> rows = new ArrayList<>(deltasByCommunity.size());
+        new TreeMap<>(deltasByCommunity).forEach((communityId, delta) -> rows.add(new Object[]{communityId, delta}));
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(counter.upsertSql, rows);
+        }
+    }
+    
+    public void membershipAdded(Long communityId, Membership.RoleType role, boolean active) {
+        adjustMembership(communityId, role, active, 1);
+    }
+    
+    public void membershipRemoved(Long communityId, Membership.RoleType role, boolean active) {
+        adjustMembership(communityId, role, active, -1);
+    }
+    
+    // Administrator and moderator counts only cover active memberships
+    public void roleChanged(Long communityId, Membership.RoleType oldRole, Membership.RoleType newRole, boolean active) {
+        if (active && oldRole != newRole) {
+            adjustRole(communityId, oldRole, -1);
+            adjustRole(communityId, newRole, 1);
+        }
+    }
+    
+    public void communityCreated(Long communityId, boolean isPrivate) {
+        jdbcTemplate.update(CREATE_ROW_SQL, communityId);
+        incrementGlobal(Counter.COMMUNITIES, 1);
+        incrementGlobal(isPrivate ? Counter.PRIVATE_COMMUNITIES : Counter.PUBLIC_COMMUNITIES, 1);
+    }
+    
+    public void communityVisibilityChanged(boolean wasPrivate, boolean isPrivate) {
+        if (wasPrivate != isPrivate) {
+            incrementGlobal(wasPrivate ? Counter.PRIVATE_COMMUNITIES : Counter.PUBLIC_COMMUNITIES, -1);
+            incrementGlobal(isPrivate ? Counter.PRIVATE_COMMUNITIES : Counter.PUBLIC_COMMUNITIES, 1);
+        }
+    }
+    
+    /**
+     * Drops the community's row and takes its DMs, which are deleted with it,
+     * off the global message count.
+     */
+    public void communityDeleted(Long communityId, boolean wasPrivate) {
+        List<Long> dmMessages = jdbcTemplate.queryForList(DELETE_ROW_SQL, Long.class, communityId);
+        incrementGlobal(Counter.COMMUNITIES, -1);
+        incrementGlobal(wasPrivate ? Counter.PRIVATE_COMMUNITIES : Counter.PUBLIC_COMMUNITIES, -1);
+        if (!dmMessages.isEmpty()) {
+            incrementGlobal(Counter.DM_MESSAGES, -dmMessages.get(0));
+        }
+    }
+    
+    /**
+     * Reads every counter's drift from the source tables in one read-only
+     * snapshot, which takes no row locks, then applies the drift as deltas one
+     * row per short transaction in community id order, the global row last.
+     * Increments committed after the snapshot are kept, since they are in
+     * neither the source counts nor the stored values it read.
+     */
+    @Scheduled(fixedDelayString = "${app.statistics.reconcile-interval-ms:900000}")
+    public void reconcile() {
+        try {
+            TransactionTemplate snapshot = new TransactionTemplate(transactionManager);
+            snapshot.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+            snapshot.setReadOnly(true);
+            Snapshot drift = snapshot.execute(status -> new Snapshot(
+                    jdbcTemplate.query(RECONCILE_COMMUNITY_DELTAS_SQL, StatisticsCounterService::longColumns),
+                    jdbcTemplate.queryForObject(RECONCILE_GLOBAL_DELTAS_SQL, StatisticsCounterService::longColumns,
+                            CommunityCounters.GLOBAL_ID)));
+            
+            TransactionTemplate apply = new TransactionTemplate(transactionManager);
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            for (long[] row : drift.communities()) {
+                if (Arrays.stream(COMMUNITY_DELTA_COLUMNS).allMatch(i -> row[i] == 0)) {
+                    continue;
+                }
+                apply.executeWithoutResult(status -> {
+                    jdbcTemplate.update(APPLY_COMMUNITY_DELTAS_SQL, row[0], row[1], row[2], row[3], row[4], row[5],
+                            row[6], row[7], row[8], row[9], now);
+                    // Denormalized copy used to sort the public directory
+                    jdbcTemplate.update(ADJUST_COMMUNITY_MEMBER_COUNT_SQL, row[10], row[0]);
+                });
+            }
+            long[] global = drift.global();
+            if (Arrays.stream(global).anyMatch(delta -> delta != 0)) {
+                apply.executeWithoutResult(status -> jdbcTemplate.update(APPLY_GLOBAL_DELTAS_SQL,
+                        CommunityCounters.GLOBAL_ID, global[0], global[1], global[2], global[3], global[4], now));
+            }
+            jdbcTemplate.update(DELETE_ORPHANS_SQL, CommunityCounters.GLOBAL_ID);
+        } catch (RuntimeException e) {
+            System.err.println("Failed to reconcile statistics counters: " + e.getMessage());
+            throw e;
+        }
+    }
+    
+    private record Snapshot(List<long[]> communities, long[] global) {
+    }
+    
+    private static long[] longColumns(ResultSet rs, int rowNum) throws SQLException {
+        long[] row = new long[rs.getMetaData().getColumnCount()];
+        for (int i = 0; i < row.length; i++) {
+            row[i] = rs.getLong(i + 1);
+        }
+        return row;
+    }
+    
+    private void adjustMembership(Long communityId, Membership.RoleType role, boolean active, long sign) {
+        if (active) {
+            increment(communityId, Counter.MEMBERS, sign);
+            // Denormalized copy used to sort the public directory
+            jdbcTemplate.update(ADJUST_COMMUNITY_MEMBER_COUNT_SQL, sign, communityId);
+            adjustRole(communityId, role, sign);
+        }
+    }
+    
+    private void adjustRole(Long communityId, Membership.RoleType role, long sign) {
+        if (role == Membership.RoleType.ADMINISTRATOR) {
+            increment(communityId, Counter.ADMINISTRATORS, sign);
+        } else if (role == Membership.RoleType.MODERATOR) {
+            increment(communityId, Counter.MODERATORS, sign);
+        }
+    }
+}
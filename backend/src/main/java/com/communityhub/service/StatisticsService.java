@@ -2,15 +2,19 @@ package com.communityhub.service;
 
 import com.communityhub.dto.CommunityStatsDTO;
 import com.communityhub.dto.GlobalStatsDTO;
-import com.communityhub.model.Community;
+import com.communityhub.model.CommunityCounters;
 import com.communityhub.model.JoinRequest;
-import com.communityhub.model.Membership;
 import com.communityhub.repository.*;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
-import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 @Service
 @RequiredArgsConstructor
@@ -25,48 +29,119 @@ public class StatisticsService {
     private final GroupChatRepository groupChatRepository;
     private final ChannelMessageRepository channelMessageRepository;
     private final GroupChatMessageRepository groupChatMessageRepository;
+    private final PresenceService presenceService;
+    private final LastSeenRecorder lastSeenRecorder;
+    private final CommunityCountersRepository communityCountersRepository;
     
+    @Value("${app.statistics.cache.ttl-ms:5000}")
+    private long cacheTtlMs;
+    
+    @Value("${app.statistics.cache.max-stale-ms:60000}")
+    private long cacheMaxStaleMs;
+    
+    private ExecutorService refreshExecutor;
+    private SingleFlightCache<Long, CommunityStatsDTO> communityStatsCache;
+    private SingleFlightCache<Long, GlobalStatsDTO> globalStatsCache;
+    
+    @PostConstruct
+    void initCaches() {
+        refreshExecutor = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "statistics-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        communityStatsCache = new SingleFlightCache<>(cacheTtlMs, cacheMaxStaleMs, refreshExecutor);
+        globalStatsCache = new SingleFlightCache<>(cacheTtlMs, cacheMaxStaleMs, refreshExecutor);
+    }
+    
+    @PreDestroy
+    void shutdownRefresh() {
+        refreshExecutor.shutdownNow();
+    }
+    
+    /**
+     * Concurrent requests for the same community share one computation; the
+     * result is cached briefly and carries the time it was computed.
+     */
     public CommunityStatsDTO getCommunityStats(Long communityId) {
-        List<Membership> memberships = membershipRepository.findByCommunityId(communityId);
-        long pendingRequests = joinRequestRepository.findByCommunityIdAndStatus(
-                communityId, 
-                JoinRequest.RequestStatus.PENDING
-        ).size();
-        
-        long administrators = memberships.stream()
-                .filter(m -> m.getRole() == Membership.RoleType.ADMINISTRATOR)
-                .count();
-        
-        long moderators = memberships.stream()
-                .filter(m -> m.getRole() == Membership.RoleType.MODERATOR)
-                .count();
-        
-        long activeMembers = memberships.stream()
-                .filter(Membership::getIsActive)
-                .count();
+        return communityStatsCache.get(communityId, this::loadCommunityStats);
+    }
+    
+    public GlobalStatsDTO getGlobalStats() {
+        return globalStatsCache.get(CommunityCounters.GLOBAL_ID, id -> loadGlobalStats());
+    }
+    
+    @Scheduled(fixedDelayString = "${app.statistics.cache.max-stale-ms:60000}")
+    public void evictExpiredStats() {
+        communityStatsCache.evictExpired();
+        globalStatsCache.evictExpired();
+    }
+    
+    /**
+     * Reads the maintained counters row; falls back to counting the source
+     * tables until the first reconciliation has created it.
+     */
+    private CommunityStatsDTO loadCommunityStats(Long communityId) {
+        // Unknown ids fail here, so they are neither computed nor cached; the global row is no community
+        if (communityId.equals(CommunityCounters.GLOBAL_ID)) {
+            throw new RuntimeException("Community not found");
+        }
+        CommunityStatsDTO stats = communityCountersRepository.findById(communityId)
+                .map(counters -> CommunityStatsDTO.builder()
+                        .communityId(communityId)
+                        .totalMembers(counters.getMemberCount())
+                        .pendingRequests(counters.getPendingRequestCount())
+                        .activeChannels(counters.getChannelCount())
+                        .groupChats(counters.getGroupChatCount())
+                        .totalMessages(counters.getChannelMessageCount() + counters.getGroupChatMessageCount())
+                        .activeUsers(lastSeenRecorder.countActive(communityId))
+                        .onlineNow(presenceService.countOnline(communityId))
+                        .administratorCount(counters.getAdministratorCount())
+                        .moderatorCount(counters.getModeratorCount())
+                        .build())
+                .orElseGet(() -> countCommunityStats(communityId));
+        stats.setComputedAt(LocalDateTime.now());
+        return stats;
+    }
+    
+    private GlobalStatsDTO loadGlobalStats() {
+        GlobalStatsDTO stats = communityCountersRepository.findById(CommunityCounters.GLOBAL_ID)
+                .map(counters -> GlobalStatsDTO.builder()
+                        .totalCommunities(counters.getCommunityCount())
+                        .totalUsers(counters.getUserCount())
+                        .totalMessages(counters.getDmMessageCount())
+                        .activeNow(presenceService.countOnline())
+                        .publicCommunities(counters.getPublicCommunityCount())
+                        .privateCommunities(counters.getPrivateCommunityCount())
+                        .build())
+                .orElseGet(this::countGlobalStats);
+        stats.setComputedAt(LocalDateTime.now());
+        return stats;
+    }
+    
+    private CommunityStatsDTO countCommunityStats(Long communityId) {
+        if (!communityRepository.existsById(communityId)) {
+            throw new RuntimeException("Community not found");
+        }
         
-        // Count channels and group chats
-        long channelCount = channelRepository.findAll().stream()
-                .filter(c -> c.getCommunity().getId().equals(communityId))
-                .count();
+        // Membership counters in a single pass
+        Object[] members = membershipRepository.aggregateMemberCounts(communityId).get(0);
+        long activeMembers = ((Number) members[0]).longValue();
+        long administrators = ((Number) members[1]).longValue();
+        long moderators = ((Number) members[2]).longValue();
         
-        long groupChatCount = groupChatRepository.findAll().stream()
-                .filter(gc -> gc.getCommunity().getId().equals(communityId))
-                .count();
+        long pendingRequests = joinRequestRepository.countByCommunityIdAndStatus(
+                communityId,
+                JoinRequest.RequestStatus.PENDING
+        );
+        long channelCount = channelRepository.countByCommunityId(communityId);
+        long groupChatCount = groupChatRepository.countByCommunityId(communityId);
         
         // Count messages from channels and group chats
         long channelMessages = channelMessageRepository.countByCommunityId(communityId);
         long groupChatMessages = groupChatMessageRepository.countByCommunityId(communityId);
         long totalMessages = channelMessages + groupChatMessages;
         
-        // Count active users (logged in within last 24 hours)
-        LocalDateTime yesterday = LocalDateTime.now().minusDays(1);
-        long activeUsers = memberships.stream()
-                .map(Membership::getUser)
-                .filter(user -> user.getLastLoginAt() != null && user.getLastLoginAt().isAfter(yesterday))
-                .distinct()
-                .count();
-        
         return CommunityStatsDTO.builder()
                 .communityId(communityId)
                 .totalMembers(activeMembers)
@@ -74,30 +149,23 @@ public class StatisticsService {
                 .activeChannels(channelCount)
                 .groupChats(groupChatCount)
                 .totalMessages(totalMessages)
-                .activeUsers(activeUsers)
+                .activeUsers(lastSeenRecorder.countActive(communityId))
+                .onlineNow(presenceService.countOnline(communityId))
                 .administratorCount(administrators)
                 .moderatorCount(moderators)
                 .build();
     }
     
-    public GlobalStatsDTO getGlobalStats() {
+    private GlobalStatsDTO countGlobalStats() {
         long totalCommunities = communityRepository.count();
         long totalUsers = userRepository.count();
         long totalMessages = dmMessageRepository.count();
         
-        List<Community> communities = communityRepository.findAll();
-        long publicCommunities = communities.stream()
-                .filter(c -> !c.getIsPrivate())
-                .count();
-        long privateCommunities = communities.stream()
-                .filter(Community::getIsPrivate)
-                .count();
+        long publicCommunities = communityRepository.countByIsPrivate(false);
+        long privateCommunities = communityRepository.countByIsPrivate(true);
         
-        // Count users active in last 24 hours
-        LocalDateTime yesterday = LocalDateTime.now().minusDays(1);
-        long activeNow = userRepository.findAll().stream()
-                .filter(u -> u.getLastLoginAt() != null && u.getLastLoginAt().isAfter(yesterday))
-                .count();
+        // Users with at least one open WebSocket session
+        long activeNow = presenceService.countOnline();
         
         return GlobalStatsDTO.builder()
                 .totalCommunities(totalCommunities)
@@ -0,0 +1,126 @@
+package com.communityhub.service;
+
+import com.communityhub.repository.DMConversationSummaryRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory unread DM counters per (receiver, sender, community), loaded from
+ * the inbox summaries on a receiver's first lookup.
+ *
+ * <p>Every change to a summary's unread count bumps its {@code unread_version}.
+ * {@link InboxService} passes the committed count and version on, and a load
+ * reads both, so whichever arrives last only wins if it is newer: a load and a
+ * commit notification can interleave without losing or double-counting
+ * messages. Receivers idle past the TTL, or loaded longer ago than the maximum
+ * age, are dropped and re-read from the database on their next lookup.
+ */
+@Service
+@RequiredArgsConstructor
+public class UnreadCounterService {
+    
+    private final DMConversationSummaryRepository summaryRepository;
+    
+    @Value("${app.unread.idle-ttl-ms:1800000}")
+    private long idleTtlMs;
+    
+    @Value("${app.unread.max-age-ms:600000}")
+    private long maxAgeMs;
+    
+    private final ConcurrentHashMap<Long, ReceiverCounters> counters = new ConcurrentHashMap<>();
+    
+    private record SenderCommunity(Long senderId, Long communityId) {
+    }
+    
+    private record Unread(int count, long version) {
+    }
+    
+    private static final class ReceiverCounters {
+        
+        // Zero counts are kept too, so an older notification cannot resurrect a read conversation
+        private final Map<SenderCommunity, Unread> unread = new HashMap<>();
+        private final long createdAtNanos = System.nanoTime();
+        private volatile long lastAccessNanos = createdAtNanos;
+        private boolean loaded;
+        
+        synchronized void merge(Long senderId, Long communityId, int count, long version) {
+            unread.merge(new SenderCommunity(senderId, communityId), new Unread(count, version),
+                    (current, update) -> update.version() > current.version() ? update : current);
+        }
+        
+        synchronized void removeCommunity(Long communityId) {
+            unread.keySet().removeIf(key -> key.communityId().equals(communityId));
+        }
+        
+        synchronized long total() {
+            return unread.values().stream().mapToLong(Unread::count).sum();
+        }
+        
+        synchronized Map<Long, Long> byCommunity() {
+            Map<Long, Long> result = new HashMap<>();
+            unread.forEach((key, state) -> {
+                if (state.count() > 0) {
+                    result.merge(key.communityId(), (long) state.count(), Long::sum);
+                }
+            });
+            return result;
+        }
+    }
+    
+    public long getTotal(Long receiverId) {
+        return load(receiverId).total();
+    }
+    
+    public Map<Long, Long> getByCommunity(Long receiverId) {
+        return load(receiverId).byCommunity();
+    }
+    
+    /**
+     * Records a committed unread count for a cached receiver. Uncached receivers
+     * are left alone: their next lookup reads the committed state.
+     */
+    public void update(Long receiverId, Long senderId, Long communityId, int unreadCount, long version) {
+        ReceiverCounters receiverCounters = counters.get(receiverId);
+        if (receiverCounters != null) {
+            receiverCounters.merge(senderId, communityId, unreadCount, version);
+        }
+    }
+    
+    /** Drops a deleted community's counters; call once the delete has committed. */
+    public void evictCommunity(Long communityId) {
+        counters.values().forEach(receiverCounters -> receiverCounters.removeCommunity(communityId));
+    }
+    
+    @Scheduled(fixedDelayString = "${app.unread.sweep-interval-ms:60000}")
+    public void evictExpired() {
+        long now = System.nanoTime();
+        long idleTtlNanos = TimeUnit.MILLISECONDS.toNanos(idleTtlMs);
+        long maxAgeNanos = TimeUnit.MILLISECONDS.toNanos(maxAgeMs);
+        counters.values().removeIf(receiverCounters ->
+                now - receiverCounters.lastAccessNanos > idleTtlNanos
+                        || now - receiverCounters.createdAtNanos > maxAgeNanos);
+    }
+    
+    private ReceiverCounters load(Long receiverId) {
+        ReceiverCounters receiverCounters = counters.computeIfAbsent(receiverId, id -> new ReceiverCounters());
+        receiverCounters.lastAccessNanos = System.nanoTime();
+        synchronized (receiverCounters) {
+            if (!receiverCounters.loaded) {
+                // Rows are (otherUserId, communityId, unreadCount, unreadVersion)
+                for (Object[] row : summaryRepository.findUnreadStateByOwner(receiverId)) {
+                    receiverCounters.merge((Long) row[0], (Long) row[1],
+                            ((Number) row[2]).intValue(), ((Number) row[3]).longValue());
+                }
+                receiverCounters.loaded = true;
+            }
+        }
+        return receiverCounters;
+    }
+}
@@ -0,0 +1,175 @@
+package com.communityhub.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.messaging.support.MessageHandlingRunnable;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SessionOrderedOutboundExecutorTest {
+    
+    private OutboundDeliveryMetrics metrics;
+    private SessionOrderedOutboundExecutor executor;
+    
+    private record Frame(Message<?> message, Runnable body) implements MessageHandlingRunnable {
+        
+        @Override
+        public Message<?> getMessage() {
+            return message;
+        }
+        
+        @Override
+        public MessageHandler getMessageHandler() {
+            return m -> body.run();
+        }
+        
+        @Override
+        public void run() {
+            body.run();
+        }
+    }
+    
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+    
+    @Test
+    void framesOfEachSessionRunInSubmissionOrder() throws Exception {
+        start(4, 10_000);
+        int framesPerSession = 2_000;
+        Map<String, List<Integer>> delivered = new ConcurrentHashMap<>();
+        CountDownLatch done = new CountDownLatch(3 * framesPerSession);
+        
+        for (int i = 0; i < framesPerSession; i++) {
+            for (String sessionId : List.of("s1", "s2", "s3")) {
+                int index = i;
+                executor.execute(frame(sessionId, () -> {
+                    delivered.computeIfAbsent(sessionId, id -> new CopyOnWriteArrayList<>()).add(index);
+                    done.countDown();
+                }));
+            }
+        }
+        
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        List<Integer> expected = IntStream.range(0, framesPerSession).boxed().toList();
+        assertEquals(expected, delivered.get("s1"));
+        assertEquals(expected, delivered.get("s2"));
+        assertEquals(expected, delivered.get("s3"));
+        awaitUntil(() -> metrics.snapshot().getSessionsWithBacklog() == 0);
+        assertEquals(3L * framesPerSession, metrics.snapshot().getDelivered());
+        assertEquals(0, metrics.snapshot().getQueuedFrames());
+    }
+    
+    @Test
+    void framesBeyondTheSessionCapacityAreRejected() throws Exception {
+        start(2, 2);
+        CountDownLatch firstStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Integer> delivered = new CopyOnWriteArrayList<>();
+        
+        executor.execute(frame("s1", () -> {
+            firstStarted.countDown();
+            await(release);
+            delivered.add(0);
+        }));
+        assertTrue(firstStarted.await(5, TimeUnit.SECONDS));
+        // The first frame is running, so two more fill the queue and the fourth is refused
+        for (int i = 1; i <= 3; i++) {
+            int index = i;
+            executor.execute(frame("s1", () -> delivered.add(index)));
+        }
+        assertEquals(1, metrics.snapshot().getRejected());
+        
+        release.countDown();
+        awaitUntil(() -> metrics.snapshot().getSessionsWithBacklog() == 0);
+        assertEquals(List.of(0, 1, 2), delivered);
+        assertEquals(3, metrics.snapshot().getDelivered());
+    }
+    
+    @Test
+    void aStalledSessionDoesNotHoldUpOthers() throws Exception {
+        start(2, 100);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch otherDelivered = new CountDownLatch(10);
+        
+        executor.execute(frame("slow", () -> await(release)));
+        for (int i = 0; i < 10; i++) {
+            executor.execute(frame("fast", otherDelivered::countDown));
+        }
+        
+        assertTrue(otherDelivered.await(5, TimeUnit.SECONDS));
+        release.countDown();
+    }
+    
+    @Test
+    void aFailingFrameDoesNotStopTheSessionQueue() throws Exception {
+        start(1, 100);
+        List<Integer> delivered = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(1);
+        
+        executor.execute(frame("s1", () -> {
+            throw new IllegalStateException("socket closed");
+        }));
+        executor.execute(frame("s1", () -> delivered.add(1)));
+        executor.execute(frame("s1", done::countDown));
+        
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of(1), delivered);
+    }
+    
+    @Test
+    void tasksWithoutASessionRunOnThePool() throws Exception {
+        start(1, 1);
+        CountDownLatch done = new CountDownLatch(2);
+        
+        executor.execute(done::countDown);
+        executor.execute(frame(null, done::countDown));
+        
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(0, metrics.snapshot().getSessionsWithBacklog());
+    }
+    
+    private void start(int threads, int sessionQueueCapacity) {
+        metrics = new OutboundDeliveryMetrics(threads, sessionQueueCapacity);
+        executor = new SessionOrderedOutboundExecutor(metrics);
+        executor.initialize();
+    }
+    
+    private static Frame frame(String sessionId, Runnable body) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setSessionId(sessionId);
+        return new Frame(MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders()), body);
+    }
+    
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not reached in time");
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.communityhub.config;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.broker.DefaultSubscriptionRegistry;
+import org.springframework.messaging.simp.broker.SubscriptionRegistry;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ShardedSubscriptionRegistryBenchmarkTest {
+    
+    // Every channel topic gets this many subscribers, the rest are spread over other topics
+    private static final int SUBSCRIBERS_PER_TOPIC = 50;
+    private static final int LOOKUPS = 20_000;
+    private static final long LOOKUP_BUDGET_MICROS = 50;
+    
+    @ParameterizedTest
+    @ValueSource(ints = {10_000, 50_000, 100_000})
+    void subscribeAndPublishCostsDoNotGrowWithTheSubscriptionCount(int subscriptions) {
+        ShardedSubscriptionRegistry sharded = new ShardedSubscriptionRegistry(64);
+        DefaultSubscriptionRegistry reference = new DefaultSubscriptionRegistry();
+        
+        long shardedSubscribe = subscribeAll(sharded, subscriptions);
+        long referenceSubscribe = subscribeAll(reference, subscriptions);
+        long shardedLookup = lookupNanos(sharded, subscriptions);
+        long referenceLookup = lookupNanos(reference, subscriptions);
+        
+        System.out.printf("%d subscriptions: subscribe %d ns/op sharded vs %d ns/op default, "
+                        + "findSubscriptions %d ns/op sharded vs %d ns/op default%n",
+                subscriptions, shardedSubscribe / subscriptions, referenceSubscribe / subscriptions,
+                shardedLookup, referenceLookup);
+        
+        assertEquals(SUBSCRIBERS_PER_TOPIC, sharded.findSubscriptions(publish("/topic/channel.0")).size());
+        assertTrue(TimeUnit.NANOSECONDS.toMicros(shardedLookup) <= LOOKUP_BUDGET_MICROS,
+                "findSubscriptions took " + shardedLookup + " ns at " + subscriptions + " subscriptions");
+    }
+    
+    private static long subscribeAll(SubscriptionRegistry registry, int subscriptions) {
+        long start = System.nanoTime();
+        for (int i = 0; i < subscriptions; i++) {
+            String destination = "/topic/channel." + (i / SUBSCRIBERS_PER_TOPIC);
+            registry.registerSubscription(subscribe("session-" + i, "sub-" + i, destination));
+        }
+        return System.nanoTime() - start;
+    }
+    
+    // Average over repeated publishes to the busiest topics, after a warm-up pass
+    private static long lookupNanos(SubscriptionRegistry registry, int subscriptions) {
+        int topics = subscriptions / SUBSCRIBERS_PER_TOPIC;
+        for (int i = 0; i < LOOKUPS; i++) {
+            registry.findSubscriptions(publish("/topic/channel." + (i % topics)));
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < LOOKUPS; i++) {
+            registry.findSubscriptions(publish("/topic/channel." + (i % topics)));
+        }
+        return (System.nanoTime() - start) / LOOKUPS;
+    }
+    
+    private static Message<byte[]> subscribe(String sessionId, String subscriptionId, String destination) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.SUBSCRIBE);
+        accessor.setSessionId(sessionId);
+        accessor.setSubscriptionId(subscriptionId);
+        accessor.setDestination(destination);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+    
+    private static Message<byte[]> publish(String destination) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setDestination(destination);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+}
@@ -0,0 +1,130 @@
+package com.communityhub.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MultiValueMap;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ShardedSubscriptionRegistryTest {
+    
+    private final ShardedSubscriptionRegistry registry = new ShardedSubscriptionRegistry(4);
+    
+    @Test
+    void exactSubscriptionsMatchOnlyTheirDestination() {
+        registry.registerSubscription(subscribe("s1", "sub-1", "/topic/channel.1"));
+        registry.registerSubscription(subscribe("s2", "sub-2", "/topic/channel.1"));
+        registry.registerSubscription(subscribe("s3", "sub-3", "/topic/channel.2"));
+        
+        assertEquals(Map.of("s1", List.of("sub-1"), "s2", List.of("sub-2")), find("/topic/channel.1"));
+        assertEquals(Map.of("s3", List.of("sub-3")), find("/topic/channel.2"));
+        assertTrue(find("/topic/channel.3").isEmpty());
+    }
+    
+    @Test
+    void oneSessionCanHoldSeveralSubscriptionsToADestination() {
+        registry.registerSubscription(subscribe("s1", "sub-1", "/topic/channel.1"));
+        registry.registerSubscription(subscribe("s1", "sub-2", "/topic/channel.1"));
+        
+        assertEquals(Map.of("s1", List.of("sub-1", "sub-2")), find("/topic/channel.1"));
+        
+        registry.unregisterSubscription(unsubscribe("s1", "sub-1"));
+        assertEquals(Map.of("s1", List.of("sub-2")), find("/topic/channel.1"));
+    }
+    
+    @Test
+    void unsubscribeRemovesOnlyThatSubscription() {
+        registry.registerSubscription(subscribe("s1", "sub-1", "/topic/channel.1"));
+        registry.registerSubscription(subscribe("s2", "sub-2", "/topic/channel.1"));
+        
+        registry.unregisterSubscription(unsubscribe("s1", "sub-1"));
+        assertEquals(Map.of("s2", List.of("sub-2")), find("/topic/channel.1"));
+        
+        registry.unregisterSubscription(unsubscribe("s2", "sub-2"));
+        assertTrue(find("/topic/channel.1").isEmpty());
+    }
+    
+    @Test
+    void unknownUnsubscribesAreIgnored() {
+        registry.registerSubscription(subscribe("s1", "sub-1", "/topic/channel.1"));
+        
+        registry.unregisterSubscription(unsubscribe("s1", "sub-9"));
+        registry.unregisterSubscription(unsubscribe("s9", "sub-1"));
+        
+        assertEquals(Map.of("s1", List.of("sub-1")), find("/topic/channel.1"));
+    }
+    
+    @Test
+    void disconnectRemovesEverySubscriptionOfTheSession() {
+        registry.registerSubscription(subscribe("s1", "sub-1", "/topic/channel.1"));
+        registry.registerSubscription(subscribe("s1", "sub-2", "/topic/channel.2"));
+        registry.registerSubscription(subscribe("s1", "sub-3", "/topic/channel.*"));
+        registry.registerSubscription(subscribe("s2", "sub-4", "/topic/channel.1"));
+        
+        registry.unregisterAllSubscriptions("s1");
+        
+        assertEquals(Map.of("s2", List.of("sub-4")), find("/topic/channel.1"));
+        assertTrue(find("/topic/channel.2").isEmpty());
+    }
+    
+    @Test
+    void patternSubscriptionsAreMatchedAlongsideExactOnes() {
+        registry.registerSubscription(subscribe("s1", "sub-1", "/topic/channel.1"));
+        registry.registerSubscription(subscribe("s2", "sub-2", "/topic/channel.*"));
+        
+        assertEquals(Map.of("s1", List.of("sub-1"), "s2", List.of("sub-2")), find("/topic/channel.1"));
+        assertEquals(Map.of("s2", List.of("sub-2")), find("/topic/channel.7"));
+        assertTrue(find("/topic/group.1").isEmpty());
+        
+        registry.unregisterSubscription(unsubscribe("s2", "sub-2"));
+        assertEquals(Map.of("s1", List.of("sub-1")), find("/topic/channel.1"));
+    }
+    
+    @Test
+    void patternMatchesDoNotLeakIntoTheExactSubscriptions() {
+        registry.registerSubscription(subscribe("s1", "sub-1", "/topic/channel.1"));
+        registry.registerSubscription(subscribe("s1", "sub-2", "/topic/channel.*"));
+        
+        assertEquals(Map.of("s1", List.of("sub-1", "sub-2")), find("/topic/channel.1"));
+        assertEquals(Map.of("s1", List.of("sub-1", "sub-2")), find("/topic/channel.1"));
+        
+        registry.unregisterSubscription(unsubscribe("s1", "sub-2"));
+        assertEquals(Map.of("s1", List.of("sub-1")), find("/topic/channel.1"));
+    }
+    
+    @Test
+    void incompleteFramesAreIgnored() {
+        registry.registerSubscription(subscribe("s1", null, "/topic/channel.1"));
+        registry.registerSubscription(subscribe("s1", "sub-1", null));
+        
+        assertTrue(find("/topic/channel.1").isEmpty());
+    }
+    
+    private MultiValueMap<String, String> find(String destination) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setDestination(destination);
+        return registry.findSubscriptions(MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders()));
+    }
+    
+    private static Message<byte[]> subscribe(String sessionId, String subscriptionId, String destination) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.SUBSCRIBE);
+        accessor.setSessionId(sessionId);
+        accessor.setSubscriptionId(subscriptionId);
+        accessor.setDestination(destination);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+    
+    private static Message<byte[]> unsubscribe(String sessionId, String subscriptionId) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.UNSUBSCRIBE);
+        accessor.setSessionId(sessionId);
+        accessor.setSubscriptionId(subscriptionId);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+}
@@ -0,0 +1,107 @@
+package com.communityhub.controller;
+
+import com.communityhub.model.DMMessage;
+import com.communityhub.model.User;
+import com.communityhub.repository.DMMessageRepository;
+import com.communityhub.service.InboxService;
+import com.communityhub.service.UnreadCounterService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class MessageControllerTest {
+    
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2026, 3, 4, 10, 15, 30, 123_456_000);
+    
+    private final DMMessageRepository repository = mock(DMMessageRepository.class);
+    private final MessageController controller = new MessageController(repository,
+            mock(InboxService.class), mock(UnreadCounterService.class));
+    
+    @Test
+    void beforeCursorIsSplitIntoTimestampAndId() {
+        controller.getConversation(2L, CREATED_AT + ",42", null, 20, 1L);
+        
+        verify(repository).findConversationBefore(1L, 2L, CREATED_AT, 42L, PageRequest.of(0, 21));
+    }
+    
+    @Test
+    void afterCursorIsSplitIntoTimestampAndId() {
+        controller.getConversation(2L, null, "2026-03-04T10:15,7", 20, 1L);
+        
+        verify(repository).findConversationAfter(1L, 2L, LocalDateTime.of(2026, 3, 4, 10, 15), 7L,
+                PageRequest.of(0, 21));
+    }
+    
+    @Test
+    void returnedCursorsParseBackToTheBoundaryMessages() {
+        when(repository.findConversationLatest(any(), any(), any()))
+                .thenReturn(List.of(message(9L, CREATED_AT), message(8L, CREATED_AT.minusSeconds(1))));
+        
+        Map<String, Object> page = controller.getConversation(2L, null, null, 20, 1L).getBody();
+        assertFalse((Boolean) page.get("hasMore"));
+        assertEquals(CREATED_AT + ",9", page.get("prevCursor"));
+        
+        controller.getConversation(2L, (String) page.get("nextCursor"), null, 20, 1L);
+        verify(repository).findConversationBefore(1L, 2L, CREATED_AT.minusSeconds(1), 8L, PageRequest.of(0, 21));
+    }
+    
+    @Test
+    void oneRowBeyondThePageSizeReportsMore() {
+        when(repository.findConversationLatest(any(), any(), any()))
+                .thenReturn(List.of(message(3L, CREATED_AT), message(2L, CREATED_AT), message(1L, CREATED_AT)));
+        
+        Map<String, Object> page = controller.getConversation(2L, null, null, 2, 1L).getBody();
+        
+        assertTrue((Boolean) page.get("hasMore"));
+        assertEquals(2, ((List<?>) page.get("messages")).size());
+        // Same timestamp, so the id decides where the next page starts
+        assertEquals(CREATED_AT + ",2", page.get("nextCursor"));
+    }
+    
+    @ParameterizedTest
+    @ValueSource(strings = {"", "42", ",42", "2026-03-04T10:15,", "2026-03-04T10:15,abc", "yesterday,42"})
+    void malformedCursorsAreRejected(String cursor) {
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> controller.getConversation(2L, cursor, null, 20, 1L));
+        
+        assertEquals("Invalid cursor: " + cursor, error.getMessage());
+        verifyNoInteractions(repository);
+    }
+    
+    @Test
+    void beforeAndAfterTogetherAreRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> controller.getConversation(2L, CREATED_AT + ",1", CREATED_AT + ",2", 20, 1L));
+        verifyNoInteractions(repository);
+    }
+    
+    private static DMMessage message(Long id, LocalDateTime createdAt) {
+        User sender = new User();
+        sender.setId(1L);
+        User receiver = new User();
+        receiver.setId(2L);
+        DMMessage message = new DMMessage();
+        message.setId(id);
+        message.setSender(sender);
+        message.setReceiver(receiver);
+        message.setContent("message " + id);
+        message.setIsRead(false);
+        message.setCreatedAt(createdAt);
+        return message;
+    }
+}
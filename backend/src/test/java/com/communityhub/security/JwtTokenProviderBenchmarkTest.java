@@ -0,0 +1,85 @@
+package com.communityhub.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JwtTokenProviderBenchmarkTest {
+    
+    private static final int LOOKUPS = 20_000;
+    
+    @Test
+    void cachedClaimsAreFasterThanVerifyingEveryRequest() {
+        String secret = secret();
+        JwtTokenProvider cached = provider(secret, 10_000);
+        // A single slot holds no more than the token just verified, so alternating tokens always miss
+        JwtTokenProvider uncached = provider(secret, 1);
+        String[] tokens = {token(cached, 1L), token(cached, 2L)};
+        
+        long cachedNanos = lookupNanos(cached, tokens);
+        long uncachedNanos = lookupNanos(uncached, tokens);
+        System.out.printf("Claims lookup: %d ns/op cached vs %d ns/op verifying every time%n",
+                cachedNanos, uncachedNanos);
+        
+        assertEquals(1L, cached.extractPrincipal(tokens[0]).getId());
+        assertTrue(cachedNanos * 2 < uncachedNanos,
+                "cached " + cachedNanos + " ns/op vs uncached " + uncachedNanos + " ns/op");
+    }
+    
+    @Test
+    void aFullCacheEvictsTheLeastRecentlyUsedToken() {
+        JwtTokenProvider provider = provider(secret(), 1_000);
+        String hot = token(provider, 0L);
+        provider.extractPrincipal(hot);
+        
+        long start = System.nanoTime();
+        for (long id = 1; id <= 10_000; id++) {
+            provider.extractPrincipal(token(provider, id));
+            provider.extractPrincipal(hot);
+        }
+        long perInsert = (System.nanoTime() - start) / 10_000;
+        System.out.printf("Claims cache at capacity: %d ns per new token including signing%n", perInsert);
+        
+        Map<?, ?> cache = (Map<?, ?>) ReflectionTestUtils.getField(provider, "verifiedClaims");
+        assertEquals(1_000, cache.size());
+        assertTrue(cache.containsKey(ReflectionTestUtils.invokeMethod(provider, "digest", hot)));
+    }
+    
+    private static long lookupNanos(JwtTokenProvider provider, String[] tokens) {
+        for (int i = 0; i < LOOKUPS; i++) {
+            provider.extractPrincipal(tokens[i % tokens.length]);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < LOOKUPS; i++) {
+            provider.extractPrincipal(tokens[i % tokens.length]);
+        }
+        return (System.nanoTime() - start) / LOOKUPS;
+    }
+    
+    private static String secret() {
+        byte[] key = new byte[32];
+        ThreadLocalRandom.current().nextBytes(key);
+        return Base64.getEncoder().encodeToString(key);
+    }
+    
+    private static JwtTokenProvider provider(String secret, int cacheSize) {
+        JwtTokenProvider provider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(provider, "secret", secret);
+        ReflectionTestUtils.setField(provider, "jwtExpiration", 3_600_000L);
+        ReflectionTestUtils.setField(provider, "claimsCacheSize", cacheSize);
+        provider.init();
+        return provider;
+    }
+    
+    private static String token(JwtTokenProvider provider, Long userId) {
+        return provider.generateToken(User.withUsername("user" + userId + "@example.com")
+                .password("unused").authorities("USER").build(), userId, "User " + userId, true);
+    }
+}
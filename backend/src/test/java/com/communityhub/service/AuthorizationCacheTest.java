@@ -0,0 +1,171 @@
+package com.communityhub.service;
+
+import com.communityhub.model.Membership;
+import com.communityhub.model.ModeratorPermission;
+import com.communityhub.repository.MembershipRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AuthorizationCacheTest {
+    
+    private final MembershipRepository repository = mock(MembershipRepository.class);
+    private final AuthorizationCache cache = new AuthorizationCache(repository);
+    
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(cache, "maxEntries", 100);
+    }
+    
+    @Test
+    void decisionsAreLoadedOnceAndThenServedFromTheCache() {
+        when(repository.findByUserIdAndCommunityId(1L, 10L)).thenReturn(membership(Membership.RoleType.MEMBER));
+        
+        assertEquals(Membership.RoleType.MEMBER, cache.get(1L, 10L).role());
+        assertEquals(Membership.RoleType.MEMBER, cache.get(1L, 10L).role());
+        
+        verify(repository, times(1)).findByUserIdAndCommunityId(1L, 10L);
+        assertEquals(1, cache.getStats().getHits());
+        assertEquals(1, cache.getStats().getMisses());
+    }
+    
+    @Test
+    void nonMembersAreCachedToo() {
+        when(repository.findByUserIdAndCommunityId(1L, 10L)).thenReturn(Optional.empty());
+        
+        assertFalse(cache.get(1L, 10L).isMember());
+        assertNull(cache.get(1L, 10L).role());
+        
+        verify(repository, times(1)).findByUserIdAndCommunityId(1L, 10L);
+    }
+    
+    @Test
+    void invalidateReloadsTheChangedMembership() {
+        when(repository.findByUserIdAndCommunityId(1L, 10L))
+                .thenReturn(membership(Membership.RoleType.MEMBER))
+                .thenReturn(membership(Membership.RoleType.MODERATOR));
+        cache.get(1L, 10L);
+        
+        cache.invalidate(1L, 10L);
+        
+        assertEquals(Membership.RoleType.MODERATOR, cache.get(1L, 10L).role());
+        assertEquals(1, cache.getStats().getEvictions());
+    }
+    
+    @Test
+    void aLoadThatRacedWithAnInvalidationIsNotCached() {
+        // The role changes while the first read is between its query and its cache write
+        when(repository.findByUserIdAndCommunityId(1L, 10L))
+                .thenAnswer(invocation -> {
+                    cache.invalidate(1L, 10L);
+                    return membership(Membership.RoleType.MEMBER);
+                })
+                .thenReturn(membership(Membership.RoleType.ADMINISTRATOR));
+        
+        assertEquals(Membership.RoleType.MEMBER, cache.get(1L, 10L).role());
+        assertEquals(Membership.RoleType.ADMINISTRATOR, cache.get(1L, 10L).role());
+        
+        verify(repository, times(2)).findByUserIdAndCommunityId(1L, 10L);
+    }
+    
+    @Test
+    void aLoadThatRacedWithACommunityEvictionIsNotCached() {
+        when(repository.findByUserIdAndCommunityId(1L, 10L))
+                .thenAnswer(invocation -> {
+                    cache.evictCommunity(10L);
+                    return membership(Membership.RoleType.MEMBER);
+                })
+                .thenReturn(Optional.empty());
+        
+        assertTrue(cache.get(1L, 10L).isMember());
+        assertFalse(cache.get(1L, 10L).isMember());
+    }
+    
+    @Test
+    void aReadBeforeCommitIsEvictedAgainAfterCommit() {
+        when(repository.findByUserIdAndCommunityId(1L, 10L))
+                .thenReturn(membership(Membership.RoleType.MEMBER))
+                .thenReturn(membership(Membership.RoleType.MEMBER))
+                .thenReturn(membership(Membership.RoleType.MODERATOR));
+        cache.get(1L, 10L);
+        
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cache.invalidate(1L, 10L);
+            // A concurrent request still sees the uncommitted row and caches it
+            assertEquals(Membership.RoleType.MEMBER, cache.get(1L, 10L).role());
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        
+        assertEquals(Membership.RoleType.MODERATOR, cache.get(1L, 10L).role());
+    }
+    
+    @Test
+    void evictCommunityLeavesOtherCommunitiesCached() {
+        when(repository.findByUserIdAndCommunityId(1L, 10L)).thenReturn(membership(Membership.RoleType.MEMBER));
+        when(repository.findByUserIdAndCommunityId(1L, 20L)).thenReturn(membership(Membership.RoleType.MEMBER));
+        cache.get(1L, 10L);
+        cache.get(1L, 20L);
+        
+        cache.evictCommunity(10L);
+        cache.get(1L, 10L);
+        cache.get(1L, 20L);
+        
+        verify(repository, times(2)).findByUserIdAndCommunityId(1L, 10L);
+        verify(repository, times(1)).findByUserIdAndCommunityId(1L, 20L);
+    }
+    
+    @Test
+    void moderatorsOnlyHoldTheirGrantedPermissions() {
+        ModeratorPermission permissions = new ModeratorPermission();
+        permissions.setCanAddMembers(true);
+        Optional<Membership> moderator = membership(Membership.RoleType.MODERATOR);
+        moderator.get().setModeratorPermission(permissions);
+        when(repository.findByUserIdAndCommunityId(1L, 10L)).thenReturn(moderator);
+        when(repository.findByUserIdAndCommunityId(2L, 10L)).thenReturn(membership(Membership.RoleType.ADMINISTRATOR));
+        when(repository.findByUserIdAndCommunityId(3L, 10L)).thenReturn(membership(Membership.RoleType.MEMBER));
+        
+        AuthorizationCache.Decision decision = cache.get(1L, 10L);
+        assertTrue(decision.hasPermission(AuthorizationCache.CAN_ADD_MEMBERS));
+        assertFalse(decision.hasPermission(AuthorizationCache.CAN_REMOVE_MEMBERS));
+        assertTrue(cache.get(2L, 10L).hasPermission(AuthorizationCache.CAN_VIEW_AUDIT_LOGS));
+        assertFalse(cache.get(3L, 10L).hasPermission(AuthorizationCache.CAN_ADD_MEMBERS));
+    }
+    
+    @Test
+    void theCacheStaysWithinItsConfiguredSize() {
+        ReflectionTestUtils.setField(cache, "maxEntries", 2);
+        when(repository.findByUserIdAndCommunityId(anyLong(), eq(10L)))
+                .thenReturn(membership(Membership.RoleType.MEMBER));
+        
+        for (long userId = 1; userId <= 5; userId++) {
+            cache.get(userId, 10L);
+        }
+        
+        assertTrue(cache.getStats().getSize() <= 2);
+        assertEquals(3, cache.getStats().getEvictions());
+    }
+    
+    private static Optional<Membership> membership(Membership.RoleType role) {
+        Membership membership = new Membership();
+        membership.setRole(role);
+        return Optional.of(membership);
+    }
+}
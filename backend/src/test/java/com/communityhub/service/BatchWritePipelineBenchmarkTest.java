@@ -0,0 +1,73 @@
+package com.communityhub.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class BatchWritePipelineBenchmarkTest {
+    
+    private static final int MESSAGES = 5_000;
+    // Stands in for one INSERT round trip plus commit
+    private static final long COMMIT_MICROS = 500;
+    
+    private static class CommitCostPipeline extends BatchWritePipeline<Long> {
+        
+        final AtomicLong written = new AtomicLong();
+        
+        CommitCostPipeline(MockEnvironment environment) {
+            super(mock(JdbcTemplate.class), new TransactionTemplate(mock(PlatformTransactionManager.class)),
+                    environment, "bench", "bench_messages");
+        }
+        
+        @Override
+        protected void write(List<Long> batch) {
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(COMMIT_MICROS));
+            written.addAndGet(batch.size());
+        }
+    }
+    
+    @Test
+    void batchingRaisesThroughputOverOneCommitPerMessage() throws Exception {
+        double perMessage = messagesPerSecond(1);
+        double batched = messagesPerSecond(200);
+        System.out.printf("Write-behind pipeline, %d us per commit: batch size 1 %.0f msgs/sec, "
+                + "batch size 200 %.0f msgs/sec%n", COMMIT_MICROS, perMessage, batched);
+        
+        assertTrue(batched >= perMessage * 10,
+                "batched " + batched + " msgs/sec vs " + perMessage + " msgs/sec unbatched");
+    }
+    
+    private static double messagesPerSecond(int batchSize) throws Exception {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("app.messaging.bench.durability", "ASYNC")
+                .withProperty("app.messaging.bench.batch-size", String.valueOf(batchSize))
+                .withProperty("app.messaging.bench.flush-interval-ms", "5")
+                .withProperty("app.messaging.bench.queue-capacity", String.valueOf(MESSAGES + 1));
+        CommitCostPipeline pipeline = new CommitCostPipeline(environment);
+        pipeline.start();
+        try {
+            long start = System.nanoTime();
+            for (long id = 1; id <= MESSAGES; id++) {
+                pipeline.enqueue(id);
+            }
+            pipeline.afterQueuedWrites().get(60, TimeUnit.SECONDS);
+            long elapsed = System.nanoTime() - start;
+            
+            assertEquals(MESSAGES, pipeline.written.get());
+            return MESSAGES / (elapsed / 1e9);
+        } finally {
+            pipeline.stop();
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.communityhub.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class BatchWritePipelineTest {
+    
+    // Stands in for dm_messages: message id -> is_read
+    private final Map<Long, Boolean> table = new ConcurrentHashMap<>();
+    private final List<Long> failed = new CopyOnWriteArrayList<>();
+    private RecordingPipeline pipeline;
+    
+    private class RecordingPipeline extends BatchWritePipeline<Long> {
+        
+        RecordingPipeline(MockEnvironment environment) {
+            super(mock(JdbcTemplate.class), new TransactionTemplate(mock(PlatformTransactionManager.class)),
+                    environment, "test", "test_messages");
+        }
+        
+        // Negative ids stand in for rows the database rejects
+        @Override
+        protected void write(List<Long> batch) {
+            if (batch.stream().anyMatch(id -> id < 0)) {
+                throw new IllegalStateException("constraint violation");
+            }
+            batch.forEach(id -> table.put(id, false));
+        }
+        
+        @Override
+        protected void onWriteFailed(Long row, RuntimeException error) {
+            failed.add(row);
+        }
+    }
+    
+    @BeforeEach
+    void setUp() {
+        // A long flush interval keeps the row queued while the read is requested
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("app.messaging.test.durability", "ASYNC")
+                .withProperty("app.messaging.test.flush-interval-ms", "500");
+        pipeline = new RecordingPipeline(environment);
+        pipeline.start();
+    }
+    
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        pipeline.stop();
+    }
+    
+    @Test
+    void markReadRequestedBeforeTheMessageIsWrittenAppliesAfterTheInsert() throws Exception {
+        pipeline.enqueue(1L);
+        assertFalse(table.containsKey(1L), "message should still be queued");
+        
+        pipeline.afterQueuedWrites().get(5, TimeUnit.SECONDS);
+        table.replaceAll((id, read) -> true);
+        
+        assertEquals(Map.of(1L, true), table);
+    }
+    
+    @Test
+    void chainedReadRunsOnTheFollowUpThreadAfterTheInsert() throws Exception {
+        pipeline.enqueue(1L);
+        List<String> threads = new CopyOnWriteArrayList<>();
+        
+        pipeline.afterQueuedWrites(() -> {
+            threads.add(Thread.currentThread().getName());
+            table.replaceAll((id, read) -> true);
+        }).get(5, TimeUnit.SECONDS);
+        
+        assertEquals(Map.of(1L, true), table);
+        assertEquals(List.of("test-persistence-follow-up"), threads);
+    }
+    
+    @Test
+    void rowsFailingOnTheirOwnAreReportedAndTheRestOfTheBatchIsWritten() throws Exception {
+        pipeline.enqueue(1L);
+        pipeline.enqueue(-2L);
+        pipeline.enqueue(3L);
+        
+        pipeline.afterQueuedWrites().get(5, TimeUnit.SECONDS);
+        
+        assertEquals(Map.of(1L, false, 3L, false), table);
+        assertEquals(List.of(-2L), failed);
+    }
+    
+    @Test
+    void submissionsAfterStopAreRejected() throws Exception {
+        pipeline.stop();
+        
+        assertThrows(IllegalStateException.class, () -> pipeline.enqueue(1L));
+        assertThrows(IllegalStateException.class, () -> pipeline.afterQueuedWrites());
+        assertTrue(table.isEmpty());
+    }
+    
+    @Test
+    void afterQueuedWritesCompletesWithNothingQueued() throws Exception {
+        pipeline.afterQueuedWrites().get(5, TimeUnit.SECONDS);
+        
+        assertTrue(table.isEmpty());
+    }
+}
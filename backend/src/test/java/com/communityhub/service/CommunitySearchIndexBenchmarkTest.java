@@ -0,0 +1,75 @@
+package com.communityhub.service;
+
+import com.communityhub.repository.CommunityRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CommunitySearchIndexBenchmarkTest {
+    
+    private static final int COMMUNITIES = 100_000;
+    private static final long BUDGET_MILLIS = 20;
+    
+    private static final String[] WORDS = {
+            "runners", "running", "chess", "photography", "hiking", "climbing", "cycling", "readers", "book",
+            "garden", "gardening", "coders", "java", "python", "music", "choir", "jazz", "film", "cinema",
+            "parents", "founders", "startup", "design", "makers", "robotics", "yoga", "football", "tennis",
+            "volunteers", "neighbours", "alumni", "students", "travel", "cooking", "bakers", "wine", "coffee"
+    };
+    
+    private static final List<String> QUERIES = List.of(
+            "run", "runners club", "runers", "photgraphy", "jazz cinema", "ch", "coffee bakers",
+            "volunteers neighbours alumni", "python coders", "zzz");
+    
+    @Test
+    void searchStaysWithinBudgetAt100kCommunities() {
+        CommunityRepository repository = mock(CommunityRepository.class);
+        when(repository.findSearchableCommunities()).thenReturn(communities());
+        CommunitySearchIndex index = new CommunitySearchIndex(repository);
+        index.rebuild();
+        
+        // Warm-up so the JIT has compiled the query path
+        for (int i = 0; i < 20; i++) {
+            QUERIES.forEach(query -> index.search(query, 20));
+        }
+        
+        long[] samples = new long[QUERIES.size() * 10];
+        for (int i = 0; i < samples.length; i++) {
+            long start = System.nanoTime();
+            index.search(QUERIES.get(i % QUERIES.size()), 20);
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        long p95Millis = TimeUnit.NANOSECONDS.toMillis(samples[samples.length * 95 / 100]);
+        System.out.println("Search over " + COMMUNITIES + " communities: p50 "
+                + TimeUnit.NANOSECONDS.toMicros(samples[samples.length / 2]) + " us, p95 " + p95Millis + " ms");
+        
+        assertFalse(index.search("runners", 20).isEmpty());
+        assertTrue(p95Millis <= BUDGET_MILLIS, "p95 " + p95Millis + " ms exceeds " + BUDGET_MILLIS + " ms");
+    }
+    
+    // Rows are (id, name, description), as returned by findSearchableCommunities
+    private static List<Object[]> communities() {
+        Random random = new Random(42);
+        List<Object[]> rows = new ArrayList<>(COMMUNITIES);
+        for (long id = 1; id <= COMMUNITIES; id++) {
+            String name = word(random) + " " + word(random) + " " + id;
+            String description = "A community for " + word(random) + " and " + word(random) + " in " + word(random);
+            rows.add(new Object[]{id, name, description});
+        }
+        return rows;
+    }
+    
+    private static String word(Random random) {
+        return WORDS[random.nextInt(WORDS.length)];
+    }
+}
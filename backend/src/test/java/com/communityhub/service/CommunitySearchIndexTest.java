@@ -0,0 +1,145 @@
+package com.communityhub.service;
+
+import com.communityhub.dto.CommunitySearchResultDTO;
+import com.communityhub.model.Community;
+import com.communityhub.repository.CommunityRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CommunitySearchIndexTest {
+    
+    private final CommunityRepository repository = mock(CommunityRepository.class);
+    private final CommunitySearchIndex index = new CommunitySearchIndex(repository);
+    
+    @Test
+    void anExactNameRanksFirstThenTiesGoByName() {
+        rebuildWith(row(1L, "Trail Runners", null), row(2L, "Runners Club", null), row(3L, "Runners", null));
+        
+        assertEquals(List.of("Runners", "Runners Club", "Trail Runners"), names(index.search("runners", 10)));
+    }
+    
+    @Test
+    void nameMatchesOutrankDescriptionMatches() {
+        rebuildWith(row(1L, "Board Games", "Chess every Tuesday"), row(2L, "Chess Club", "Weekly games"));
+        
+        assertEquals(List.of("Chess Club", "Board Games"), names(index.search("chess", 10)));
+    }
+    
+    @Test
+    void scoresAddUpOverTheQueryWords() {
+        rebuildWith(row(1L, "Jazz Lovers", null), row(2L, "Cinema Lovers", null), row(3L, "Jazz Cinema", null));
+        
+        List<CommunitySearchResultDTO> results = index.search("jazz cinema", 10);
+        
+        assertEquals("Jazz Cinema", results.get(0).getName());
+        assertEquals(3, results.size());
+        assertTrue(results.get(0).getScore() > results.get(1).getScore());
+    }
+    
+    @Test
+    void misspelledWordsMatchByTrigrams() {
+        rebuildWith(row(1L, "Runners", null), row(2L, "Photography", null));
+        
+        assertEquals(List.of("Runners"), names(index.search("runers", 10)));
+        assertEquals(List.of("Photography"), names(index.search("photgraphy", 10)));
+    }
+    
+    @Test
+    void shortWordsAreOnlyPrefixMatched() {
+        rebuildWith(row(1L, "Ant Farm", null), row(2L, "Chess", null));
+        
+        // A single letter is neither a prefix query nor long enough for trigrams
+        assertTrue(index.search("a", 10).isEmpty());
+        assertEquals(List.of("Ant Farm"), names(index.search("an", 10)));
+        assertEquals(List.of("Chess"), names(index.search("ch", 10)));
+    }
+    
+    @Test
+    void onlyTheBestResultsUpToTheLimitAreReturned() {
+        List<Object[]> rows = new ArrayList<>();
+        for (long id = 1; id <= 30; id++) {
+            rows.add(row(id, String.format("Chess Club %02d", id), null));
+        }
+        rows.add(row(99L, "Chess", null));
+        when(repository.findSearchableCommunities()).thenReturn(rows);
+        index.rebuild();
+        
+        assertEquals(List.of("Chess", "Chess Club 01", "Chess Club 02"), names(index.search("chess", 3)));
+        assertTrue(index.search("chess", 0).isEmpty());
+        assertTrue(index.search("  ", 10).isEmpty());
+    }
+    
+    @Test
+    void updatesReindexAndDropPrivateOrInactiveCommunities() {
+        rebuildWith(row(1L, "Runners", null));
+        
+        index.update(community(2L, "Night Runners", false, true));
+        index.update(community(1L, "Runners", true, true));
+        assertEquals(List.of("Night Runners"), names(index.search("runners", 10)));
+        
+        index.update(community(2L, "Night Owls", false, true));
+        assertTrue(index.search("runners", 10).isEmpty());
+        
+        index.update(community(2L, "Night Owls", false, false));
+        assertTrue(index.search("owls", 10).isEmpty());
+    }
+    
+    @Test
+    void changesMadeWhileARebuildReadsTheDatabaseAreReplayed() {
+        // The rebuild's read predates both changes, so it still returns community 1 and not community 2
+        when(repository.findSearchableCommunities()).thenAnswer(invocation -> {
+            index.update(community(2L, "Chess Club", false, true));
+            index.remove(1L);
+            return List.<Object[]>of(row(1L, "Runners", null));
+        });
+        
+        index.rebuild();
+        
+        assertTrue(index.search("runners", 10).isEmpty());
+        assertEquals(List.of("Chess Club"), names(index.search("chess", 10)));
+        assertEquals(1, index.getStats().getDocuments());
+    }
+    
+    @Test
+    void aFailedRebuildKeepsTheCurrentIndex() {
+        rebuildWith(row(1L, "Runners", null));
+        when(repository.findSearchableCommunities()).thenThrow(new RuntimeException("connection refused"));
+        
+        assertThrows(RuntimeException.class, index::rebuild);
+        index.update(community(2L, "Chess Club", false, true));
+        
+        assertEquals(List.of("Runners"), names(index.search("runners", 10)));
+        assertEquals(List.of("Chess Club"), names(index.search("chess", 10)));
+    }
+    
+    private void rebuildWith(Object[]... rows) {
+        when(repository.findSearchableCommunities()).thenReturn(List.of(rows));
+        index.rebuild();
+    }
+    
+    private static List<String> names(List<CommunitySearchResultDTO> results) {
+        return results.stream().map(CommunitySearchResultDTO::getName).toList();
+    }
+    
+    // Rows are (id, name, description), as returned by findSearchableCommunities
+    private static Object[] row(Long id, String name, String description) {
+        return new Object[]{id, name, description};
+    }
+    
+    private static Community community(Long id, String name, boolean isPrivate, boolean isActive) {
+        Community community = new Community();
+        community.setId(id);
+        community.setName(name);
+        community.setIsPrivate(isPrivate);
+        community.setIsActive(isActive);
+        return community;
+    }
+}
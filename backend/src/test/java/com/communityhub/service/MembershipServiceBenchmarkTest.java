@@ -0,0 +1,72 @@
+package com.communityhub.service;
+
+import com.communityhub.dto.CommunityDTO;
+import com.communityhub.model.Membership;
+import com.communityhub.repository.MembershipRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+class MembershipServiceBenchmarkTest {
+    
+    private static final int COMMUNITIES = 200;
+    // Stands in for one database round trip
+    private static final long ROUND_TRIP_MICROS = 500;
+    private static final long BUDGET_MILLIS = 20;
+    
+    @Test
+    void myCommunitiesForAUserIn200CommunitiesIsOneRoundTrip() {
+        MembershipRepository repository = mock(MembershipRepository.class);
+        List<Object[]> rows = summaries();
+        when(repository.findCommunitySummariesByUserId(7L)).thenAnswer(invocation -> {
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(ROUND_TRIP_MICROS));
+            return rows;
+        });
+        MembershipService service = new MembershipService(repository, mock(AuthorizationCache.class),
+                mock(ChatRoomDirectory.class), mock(StatisticsCounterService.class));
+        
+        // Warm-up, then the measured call
+        for (int i = 0; i < 50; i++) {
+            service.getUserCommunities(7L);
+        }
+        long start = System.nanoTime();
+        List<CommunityDTO> communities = service.getUserCommunities(7L);
+        long elapsedMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
+        // The previous path loaded the memberships, then each community and its member count
+        long previousMicros = (2L * COMMUNITIES + 1) * ROUND_TRIP_MICROS;
+        System.out.printf("My communities for a user in %d communities: %d us with one query, "
+                + "about %d us for %d round trips before%n", COMMUNITIES, elapsedMicros, previousMicros,
+                2 * COMMUNITIES + 1);
+        
+        assertEquals(COMMUNITIES, communities.size());
+        assertEquals("ADMINISTRATOR", communities.get(0).getRole());
+        verify(repository, times(51)).findCommunitySummariesByUserId(7L);
+        verifyNoMoreInteractions(repository);
+        assertTrue(TimeUnit.MICROSECONDS.toMillis(elapsedMicros) <= BUDGET_MILLIS,
+                "took " + elapsedMicros + " us");
+    }
+    
+    // Rows as returned by findCommunitySummariesByUserId
+    private static List<Object[]> summaries() {
+        List<Object[]> rows = new ArrayList<>(COMMUNITIES);
+        LocalDateTime createdAt = LocalDateTime.of(2026, 1, 1, 0, 0);
+        for (long id = 1; id <= COMMUNITIES; id++) {
+            Membership.RoleType role = id == 1 ? Membership.RoleType.ADMINISTRATOR : Membership.RoleType.MEMBER;
+            rows.add(new Object[]{id, "Community " + id, "Description " + id, id % 2 == 0, "JOIN" + id,
+                    null, true, true, createdAt, role, 100L + id});
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,130 @@
+package com.communityhub.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SingleFlightCacheTest {
+    
+    // Refreshes run only when the test drains them
+    private final List<Runnable> refreshes = new ArrayList<>();
+    private final AtomicInteger loads = new AtomicInteger();
+    
+    @Test
+    void concurrentMissesShareOneLoad() throws Exception {
+        SingleFlightCache<Long, String> cache = new SingleFlightCache<>(60_000, 60_000, refreshes::add);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            results.add(callers.submit(() -> cache.get(1L, id -> {
+                loading.countDown();
+                awaitQuietly(release);
+                return load(id);
+            })));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            for (int i = 0; i < 7; i++) {
+                results.add(callers.submit(() -> cache.get(1L, this::load)));
+            }
+            // Give the waiting callers time to join the running load
+            Thread.sleep(50);
+            release.countDown();
+            
+            for (Future<String> result : results) {
+                assertEquals("value-1-1", result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, loads.get());
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+    
+    @Test
+    void freshValuesAreServedWithoutLoading() {
+        SingleFlightCache<Long, String> cache = new SingleFlightCache<>(60_000, 60_000, refreshes::add);
+        
+        assertEquals("value-1-1", cache.get(1L, this::load));
+        assertEquals("value-1-1", cache.get(1L, this::load));
+        assertEquals("value-2-2", cache.get(2L, this::load));
+        
+        assertEquals(2, loads.get());
+        assertTrue(refreshes.isEmpty());
+    }
+    
+    @Test
+    void staleValuesAreServedWhileOneRefreshRuns() throws Exception {
+        SingleFlightCache<Long, String> cache = new SingleFlightCache<>(20, 60_000, refreshes::add);
+        cache.get(1L, this::load);
+        Thread.sleep(40);
+        
+        assertEquals("value-1-1", cache.get(1L, this::load));
+        assertEquals("value-1-1", cache.get(1L, this::load));
+        assertEquals(1, refreshes.size(), "a second stale read should join the pending refresh");
+        
+        refreshes.remove(0).run();
+        assertEquals("value-1-2", cache.get(1L, this::load));
+        assertEquals(2, loads.get());
+    }
+    
+    @Test
+    void valuesPastTheStaleWindowAreReloadedByTheCaller() throws Exception {
+        SingleFlightCache<Long, String> cache = new SingleFlightCache<>(10, 10, refreshes::add);
+        cache.get(1L, this::load);
+        Thread.sleep(40);
+        
+        assertEquals("value-1-2", cache.get(1L, this::load));
+        assertTrue(refreshes.isEmpty());
+    }
+    
+    @Test
+    void failedLoadsAreNotCached() {
+        SingleFlightCache<Long, String> cache = new SingleFlightCache<>(60_000, 60_000, refreshes::add);
+        
+        RuntimeException error = assertThrows(RuntimeException.class, () -> cache.get(1L, id -> {
+            throw new RuntimeException("Community not found");
+        }));
+        assertEquals("Community not found", error.getMessage());
+        assertEquals(0, cache.size());
+        
+        assertEquals("value-1-1", cache.get(1L, this::load));
+    }
+    
+    @Test
+    void evictExpiredDropsOnlyValuesPastTheStaleWindow() throws Exception {
+        SingleFlightCache<Long, String> cache = new SingleFlightCache<>(100, 100, refreshes::add);
+        cache.get(1L, this::load);
+        cache.get(2L, this::load);
+        Thread.sleep(250);
+        cache.get(3L, this::load);
+        
+        cache.evictExpired();
+        
+        assertEquals(1, cache.size());
+        assertEquals("value-3-3", cache.get(3L, this::load));
+        assertEquals(3, loads.get());
+    }
+    
+    private String load(Long id) {
+        return "value-" + id + "-" + loads.incrementAndGet();
+    }
+    
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -25,6 +25,8 @@ const AdminPanelPage = () => {
   const [community, setCommunity] = useState(null);
   const [stats, setStats] = useState(null);
   const [members, setMembers] = useState([]);
+  const [membersCursor, setMembersCursor] = useState(null);
+  const [memberSearch, setMemberSearch] = useState('');
   const [joinRequests, setJoinRequests] = useState([]);
   const [invites, setInvites] = useState([]);
   const [moderators, setModerators] = useState([]);
@@ -98,10 +100,23 @@ const AdminPanelPage = () => {
     }
   };
 
-  const fetchMembers = async () => {
+  // Without a cursor the list restarts from the first page; with one, the next page is appended
+  useEffect(() => {
+    if (activeTab !== 'members') return;
+    const timer = setTimeout(() => fetchMembers(), 300);
+    return () => clearTimeout(timer);
+  }, [memberSearch]);
+
+  const fetchMembers = async (cursor = null) => {
     try {
-      const response = await api.members.getCommunityMembers(communityId);
-      setMembers(response.data);
+      const response = await api.members.getCommunityMembers(communityId, {
+        name: memberSearch.trim() || undefined,
+        cursor: cursor || undefined,
+        size: 50,
+      });
+      const page = response.data.members || [];
+      setMembers(prev => (cursor ? [...prev, ...page] : page));
+      setMembersCursor(response.data.nextCursor || null);
     } catch (error) {
       console.error('Error fetching members:', error);
       toast.error('Failed to load members');
@@ -505,9 +520,16 @@ const AdminPanelPage = () => {
           <div className="card p-6">
             <div className="flex items-center justify-between mb-6">
               <h3 className="text-xl font-bold text-gray-900">Community Members</h3>
-              <Button onClick={fetchMembers}>
-                Refresh
-              </Button>
+              <div className="flex items-center space-x-3">
+                <Input
+                  value={memberSearch}
+                  onChange={(e) => setMemberSearch(e.target.value)}
+                  placeholder="Search by name..."
+                />
+                <Button onClick={() => fetchMembers()}>
+                  Refresh
+                </Button>
+              </div>
             </div>
 
             {members.length === 0 ? (
@@ -569,6 +591,13 @@ const AdminPanelPage = () => {
                     ))}
                   </tbody>
                 </table>
+                {membersCursor && (
+                  <div className="flex justify-center pt-4">
+                    <Button variant="ghost" onClick={() => fetchMembers(membersCursor)}>
+                      Load more
+                    </Button>
+                  </div>
+                )}
               </div>
             )}
           </div>
@@ -32,6 +32,7 @@ const DirectMessagesPage = () => {
   const [communityMembers, setCommunityMembers] = useState([]);
   const [loadingMembers, setLoadingMembers] = useState(false);
   const [memberSearchQuery, setMemberSearchQuery] = useState('');
+  const [membersCursor, setMembersCursor] = useState(null);
 
   // Initialize WebSocket connection
   useEffect(() => {
@@ -48,6 +49,13 @@ const DirectMessagesPage = () => {
           websocketService.subscribeToUserMessages((message) => {
             handleNewMessage(message);
           });
+
+          // Messages are delivered before they are stored; drop any that failed to save
+          websocketService.subscribeToMessageFailures((failure) => {
+            if (failure.roomType !== 'DM') return;
+            setMessages(prev => prev.filter(m => m.id !== failure.messageId));
+            toast.error('A message could not be saved. Please send it again.');
+          });
         },
         (error) => {
           console.error('❌ WebSocket error:', error);
@@ -137,10 +145,12 @@ const DirectMessagesPage = () => {
       const messages = response.data.messages || [];
       console.log('📬 Message count:', messages.length);
       
+      // Newest message is first in the response; it is the read watermark
+      const newestMessage = messages.length > 0 ? messages[0] : null;
       setMessages(messages.reverse());
       
       // Mark messages as read
-      await markMessagesAsRead(receiverId);
+      await markMessagesAsRead(receiverId, newestMessage);
     } catch (error) {
       console.error('❌ Error fetching messages:', error);
       console.error('Error details:', error.response?.data);
@@ -148,7 +158,7 @@ const DirectMessagesPage = () => {
     }
   };
 
-  const markMessagesAsRead = async (senderId) => {
+  const markMessagesAsRead = async (senderId, upToMessage) => {
     try {
       // Update the UI immediately
       setConversations(prev => 
@@ -157,8 +167,10 @@ const DirectMessagesPage = () => {
         )
       );
       
-      // Note: Message read status is typically tracked server-side via WebSocket
-      // or a separate API call. For now, we're just updating the local UI.
+      // One watermark frame marks everything up to the newest message as read
+      if (upToMessage && websocketService.isConnected()) {
+        websocketService.markConversationRead(senderId, communityId, upToMessage.createdAt, upToMessage.id);
+      }
     } catch (error) {
       console.error('Error marking messages as read:', error);
     }
@@ -226,7 +238,7 @@ const DirectMessagesPage = () => {
         
         // Mark as read if it's from the other person and conversation is active
         if (messageSenderId === selectedUserId) {
-          markMessagesAsRead(selectedConversation.userId);
+          markMessagesAsRead(selectedConversation.userId, message);
         }
       }
     }
@@ -392,13 +404,20 @@ const DirectMessagesPage = () => {
     messagesEndRef.current?.scrollIntoView({ behavior: 'smooth' });
   };
 
-  const fetchCommunityMembers = async () => {
+  // Pages through members matching the search box; pass the previous nextCursor to load more
+  const fetchCommunityMembers = async (cursor = null) => {
     try {
       setLoadingMembers(true);
-      const response = await api.members.getAll(communityId);
+      const response = await api.members.getAll(communityId, {
+        active: true,
+        name: memberSearchQuery.trim() || undefined,
+        cursor: cursor || undefined,
+        size: 50,
+      });
       // Filter out current user from the list
-      const members = (response.data || []).filter(member => member.userId !== user.userId);
-      setCommunityMembers(members);
+      const members = (response.data.members || []).filter(member => member.userId !== user.userId);
+      setCommunityMembers(prev => (cursor ? [...prev, ...members] : members));
+      setMembersCursor(response.data.nextCursor || null);
     } catch (error) {
       console.error('Error fetching community members:', error);
       toast.error('Failed to load community members');
@@ -441,13 +460,14 @@ const DirectMessagesPage = () => {
     }
   };
 
-  const filteredMembers = communityMembers.filter(member =>
-    member.userId !== user.userId && (
-      member.fullName?.toLowerCase().includes(memberSearchQuery.toLowerCase()) ||
-      member.username?.toLowerCase().includes(memberSearchQuery.toLowerCase()) ||
-      member.email?.toLowerCase().includes(memberSearchQuery.toLowerCase())
-    )
-  );
+  // Name search runs on the server so members beyond the first page can be found
+  useEffect(() => {
+    if (!showNewMessageModal) return;
+    const timer = setTimeout(() => fetchCommunityMembers(), 300);
+    return () => clearTimeout(timer);
+  }, [memberSearchQuery, showNewMessageModal]);
+
+  const filteredMembers = communityMembers.filter(member => member.userId !== user.userId);
 
   const filteredConversations = conversations.filter(conv =>
     conv.name?.toLowerCase().includes(searchQuery.toLowerCase()) ||
@@ -524,10 +544,7 @@ const DirectMessagesPage = () => {
               <Button
                 variant="primary"
                 className="w-full justify-center"
-                onClick={() => {
-                  setShowNewMessageModal(true);
-                  fetchCommunityMembers();
-                }}
+                onClick={() => setShowNewMessageModal(true)}
               >
                 <FiPlus className="mr-2" />
                 New Message
@@ -854,7 +871,7 @@ const DirectMessagesPage = () => {
               scrollbarColor: '#CBD5E0 transparent'
             }}
           >
-            {loadingMembers ? (
+            {loadingMembers && filteredMembers.length === 0 ? (
               <div className="flex items-center justify-center py-8">
                 <LoadingSpinner />
               </div>
@@ -908,6 +925,18 @@ const DirectMessagesPage = () => {
                 </motion.div>
               ))
             )}
+            {membersCursor && filteredMembers.length > 0 && (
+              <div className="flex justify-center pt-2">
+                <Button
+                  variant="ghost"
+                  size="sm"
+                  disabled={loadingMembers}
+                  onClick={() => fetchCommunityMembers(membersCursor)}
+                >
+                  {loadingMembers ? 'Loading...' : 'Load more'}
+                </Button>
+              </div>
+            )}
           </div>
 
           {/* Close Button */}
@@ -49,7 +49,10 @@ const api = {
 
   // Community endpoints
   communities: {
-    getPublic: () => apiClient.get('/communities/public'),
+    // sort is NAME, MEMBERS or RECENT; response is { communities, page, size, hasMore }
+    getPublic: (page = 0, size = 20, sort = 'NAME') =>
+      apiClient.get('/communities/public', { params: { page, size, sort } }),
+    search: (q, limit = 20) => apiClient.get('/communities/search', { params: { q, limit } }),
     getMyCommunities: () => apiClient.get('/communities/my-communities'),
     getById: (id) => apiClient.get(`/communities/${id}`),
     getCommunityById: (id) => apiClient.get(`/communities/${id}`), // Alias for getById
@@ -63,8 +66,11 @@ const api = {
 
   // Member endpoints
   members: {
-    getAll: (communityId) => apiClient.get(`/communities/${communityId}/members`),
-    getCommunityMembers: (communityId) => apiClient.get(`/communities/${communityId}/members`), // Alias for getAll
+    // params: { role, department, active, name, cursor, size, view: 'FULL' | 'SUMMARY' };
+    // response is { members, hasMore, nextCursor } - pass nextCursor back as cursor for the next page
+    getAll: (communityId, params = {}) => apiClient.get(`/communities/${communityId}/members`, { params }),
+    getCommunityMembers: (communityId, params = {}) =>
+      apiClient.get(`/communities/${communityId}/members`, { params }), // Alias for getAll
     getById: (communityId, memberId) => apiClient.get(`/communities/${communityId}/members/${memberId}`),
     getActivity: (communityId, memberId) => apiClient.get(`/communities/${communityId}/members/${memberId}/activity`),
     add: (communityId, data) => apiClient.post(`/communities/${communityId}/members`, data),
@@ -78,10 +84,13 @@ const api = {
   // Message endpoints
   messages: {
     getConversations: (communityId) => apiClient.get(`/messages/conversations?communityId=${communityId}`),
-    getConversation: (otherUserId, page = 0, size = 50) => 
-      apiClient.get(`/messages/conversation/${otherUserId}?page=${page}&size=${size}`),
-    getDirectMessages: (communityId, otherUserId, page = 0, size = 50) => 
-      apiClient.get(`/messages/conversation/${otherUserId}?page=${page}&size=${size}`),
+    // Cursor-based history: pass the previous response's nextCursor as `before` to scroll back
+    getConversation: (otherUserId, before = null, size = 50) => 
+      apiClient.get(`/messages/conversation/${otherUserId}`, { params: { before, size } }),
+    getDirectMessages: (communityId, otherUserId, before = null, size = 50) => 
+      apiClient.get(`/messages/conversation/${otherUserId}`, { params: { before, size } }),
+    getNewerMessages: (otherUserId, after, size = 50) => 
+      apiClient.get(`/messages/conversation/${otherUserId}`, { params: { after, size } }),
     getUnreadCount: () => apiClient.get('/messages/unread-count'),
     // Note: markAsRead is handled via WebSocket, not REST API
     markAsRead: (communityId, senderId) => Promise.resolve({ data: { success: true } }),
@@ -1,6 +1,8 @@
 import { Client } from '@stomp/stompjs';
 import SockJS from 'sockjs-client';
 
+const RECONNECT_DELAY_MS = 5000;
+
 class WebSocketService {
   constructor() {
     this.client = null;
@@ -37,11 +39,16 @@ class WebSocketService {
       debug: (str) => {
         console.log('STOMP Debug:', str);
       },
-      reconnectDelay: 5000,
+      reconnectDelay: RECONNECT_DELAY_MS,
       heartbeatIncoming: 4000,
       heartbeatOutgoing: 4000,
     });
 
+    // A slow-consumer retry-after only applies to the reconnect it was sent for
+    this.client.beforeConnect = () => {
+      this.client.reconnectDelay = RECONNECT_DELAY_MS;
+    };
+
     this.client.onConnect = (frame) => {
       console.log('✅ WebSocket Connected successfully:', frame);
       this.connected = true;
@@ -66,6 +73,16 @@ class WebSocketService {
       this.connected = false;
     };
 
+    // The server closes sessions that fall too far behind with "slow-consumer;retry-after=<ms>"
+    this.client.onWebSocketClose = (event) => {
+      this.connected = false;
+      const match = /^slow-consumer;retry-after=(\d+)$/.exec(event?.reason || '');
+      if (match) {
+        console.warn('WebSocket closed as slow consumer, reconnecting in', match[1], 'ms');
+        this.client.reconnectDelay = Number(match[1]);
+      }
+    };
+
     this.client.activate();
   }
 
@@ -163,10 +180,58 @@ class WebSocketService {
     this.sendMessage('/app/chat.markAsRead', messageId);
   }
 
+  // The watermark is the newest read message's (createdAt, id) pair
+  markConversationRead(otherUserId, communityId, upToCreatedAt, upToMessageId) {
+    this.sendMessage('/app/chat.markConversationRead', {
+      otherUserId,
+      communityId,
+      upToCreatedAt,
+      upToMessageId,
+    });
+  }
+
+  sendChannelMessage(channelId, content, parentMessageId = null) {
+    this.sendMessage('/app/chat.sendChannelMessage', {
+      roomId: channelId,
+      content,
+      parentMessageId,
+    });
+  }
+
+  sendGroupMessage(groupChatId, content, parentMessageId = null) {
+    this.sendMessage('/app/chat.sendGroupMessage', {
+      roomId: groupChatId,
+      content,
+      parentMessageId,
+    });
+  }
+
+  subscribeToChannel(channelId, callback) {
+    return this.subscribe(`/topic/channel.${channelId}`, callback);
+  }
+
+  subscribeToGroup(groupChatId, callback) {
+    return this.subscribe(`/topic/group.${groupChatId}`, callback);
+  }
+
+  // Receives batched { communityId, online: [userId], offline: [userId], timestamp } deltas
+  subscribeToPresence(communityId, callback) {
+    return this.subscribe(`/topic/community.${communityId}.presence`, callback);
+  }
+
+  subscribeToReadReceipts(callback) {
+    return this.subscribe('/user/queue/read-receipts', callback);
+  }
+
   subscribeToUserMessages(callback) {
     return this.subscribe('/user/queue/messages', callback);
   }
 
+  // Receives { messageId, roomType, roomId, communityId, reason } for delivered messages that could not be saved
+  subscribeToMessageFailures(callback) {
+    return this.subscribe('/user/queue/message-failures', callback);
+  }
+
   isConnected() {
     return this.connected;
   }